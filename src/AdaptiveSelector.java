@@ -0,0 +1,119 @@
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+/**
+ * Picks the next question of an adaptive quiz.
+ *
+ * The category is drawn from an alias table weighted by how often the player
+ * has missed questions in it, so weak categories come up more. Within the
+ * category a few unasked questions are drawn at random and the one whose
+ * rating is closest to the player's is asked, which keeps the questions near
+ * the player's level without scanning the category.
+ */
+class AdaptiveSelector {
+    private static final int CANDIDATES = 4;
+
+    private final QuestionBank bank;
+    private final QuestionRatings ratings;
+    private final SplittableRandom random;
+    private final BitSet asked = new BitSet();
+    private final int[] askedByCategory = new int[QuizCategory.values().length];
+    private final double[] weights = new double[QuizCategory.values().length];
+    private double playerRating;
+
+    /**
+     * Constructor, creates a selector for one quiz by a new player
+     * @param bank, question bank
+     * @param ratings, question ratings
+     * @param random, source of randomness
+     */
+    public AdaptiveSelector(QuestionBank bank, QuestionRatings ratings, SplittableRandom random) {
+        this(bank, ratings, random, QuestionRatings.INITIAL_RATING);
+    }
+
+    /**
+     * Constructor, creates a selector for one quiz by a player with a known rating
+     * @param bank, question bank
+     * @param ratings, question ratings
+     * @param random, source of randomness
+     * @param playerRating, the player's rating at the end of their last adaptive quiz
+     */
+    public AdaptiveSelector(QuestionBank bank, QuestionRatings ratings, SplittableRandom random, double playerRating) {
+        this.bank = bank;
+        this.ratings = ratings;
+        this.random = random;
+        this.playerRating = playerRating;
+    }
+
+    /**
+     * Picks the next question.
+     * @param correctByCategory, correct answers so far per category ordinal
+     * @param totalByCategory, answers so far per category ordinal
+     * @return question index, or -1 if every question has been asked
+     */
+    public int next(int[] correctByCategory, int[] totalByCategory) {
+        QuizCategory[] categories = QuizCategory.values();
+        boolean any = false;
+        for (int c = 0; c < categories.length; c++) {
+            if (askedByCategory[c] < bank.size(categories[c])) {
+                // Share of misses, smoothed so an unplayed category starts at one half
+                weights[c] = (totalByCategory[c] - correctByCategory[c] + 1.0) / (totalByCategory[c] + 2.0);
+                any = true;
+            } else {
+                weights[c] = 0;
+            }
+        }
+        if (!any) {
+            return -1;
+        }
+        // Only a handful of categories, so the table is rebuilt for each pick
+        QuizCategory category = categories[new AliasTable(weights).sample(random)];
+
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        int size = bank.size(category);
+        for (int attempt = 0; attempt < CANDIDATES * 4 && attempt < size * 2; attempt++) {
+            int question = bank.questionIn(category, random.nextInt(size));
+            if (asked.get(question)) {
+                continue;
+            }
+            double distance = Math.abs(ratings.getRating(question) - playerRating);
+            if (distance < bestDistance) {
+                best = question;
+                bestDistance = distance;
+            }
+            if (attempt >= CANDIDATES - 1 && best >= 0) {
+                break;
+            }
+        }
+        if (best < 0) {
+            // Random draws kept hitting asked questions, take the first one left
+            for (int position = 0; best < 0; position++) {
+                int question = bank.questionIn(category, position);
+                if (!asked.get(question)) {
+                    best = question;
+                }
+            }
+        }
+        asked.set(best);
+        askedByCategory[category.ordinal()]++;
+        return best;
+    }
+
+    /**
+     * Records the player's answer, updating both ratings.
+     * @param question, question index
+     * @param correct, whether the answer was correct
+     */
+    public void recordAnswer(int question, boolean correct) {
+        playerRating = ratings.recordAnswer(playerRating, question, correct);
+    }
+
+    /**
+     * Getter, gets the player's estimated rating
+     * @return playerRating
+     */
+    public double getPlayerRating() {
+        return playerRating;
+    }
+}
@@ -1,17 +1,34 @@
 /**
  * Manages the application's data,
- * including the current user and task manager.
+ * including the current user, the user store and the task manager.
  */
 public class ApplicationModel {
     private Profile currentUser;
     private TaskManager taskManager;
+    private UserManager userManager;
 
     /**
      * Constructs an ApplicationModel
-     * and initializes the task manager.
+     * and initializes the task manager and the shared user store.
      */
     public ApplicationModel() {
         taskManager = new TaskManager();
+        userManager = new UserManager();
+        userManager.addProfileListener(new UserManager.ProfileListener() {
+            @Override
+            public void profileChanged(Profile profile) {
+                if (currentUser != null && currentUser.getEmail().equals(profile.getEmail())) {
+                    currentUser = profile;
+                }
+            }
+
+            @Override
+            public void profileDeleted(String email) {
+                if (currentUser != null && currentUser.getEmail().equals(email)) {
+                    currentUser = null;
+                }
+            }
+        });
     }
 
     /**
@@ -22,6 +39,14 @@ public class ApplicationModel {
         this.currentUser = user;
     }
 
+    /**
+     * Gets the current user profile.
+     * @return The current user, or null if nobody is logged in.
+     */
+    public Profile getCurrentUser() {
+        return currentUser;
+    }
+
     /**
      * Gets the task manager associated with the application.]
      * @return The TaskManager instance.
@@ -29,4 +54,19 @@ public class ApplicationModel {
     public TaskManager getTaskManager() {
         return taskManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the user store shared by every screen.
+     * @return The UserManager instance.
+     */
+    public UserManager getUserManager() {
+        return userManager;
+    }
+
+    /**
+     * Writes any pending user changes and releases the user store.
+     */
+    public void close() {
+        userManager.close();
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces a file so that a crash leaves either the old or the new contents, never a
+ * truncated mix: the new contents go to a temp file next to the target, are fsync'd,
+ * and are then renamed over the target in one step.
+ */
+class AtomicFileWriter {
+
+    /**
+     * Writes the contents of a file.
+     */
+    interface Contents {
+        void writeTo(File file) throws IOException;
+    }
+
+    /**
+     * Atomically replaces the target with the written contents.
+     * @param target, file to replace
+     * @param contents, writes the new contents to the file it is given
+     */
+    public static void replace(File target, Contents contents) throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+        try {
+            contents.writeTo(temp);
+            try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            try {
+                Files.move(temp.toPath(), target.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+        syncDirectory(target.getAbsoluteFile().getParentFile().toPath());
+    }
+
+    /**
+     * Makes the rename itself durable. Not every platform can open a directory, in which
+     * case the rename is left to the file system.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened for sync on this platform
+        }
+    }
+}
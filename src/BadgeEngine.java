@@ -0,0 +1,124 @@
+import java.util.*;
+
+/**
+ * Decides which badges a profile has earned.
+ *
+ * Point badges are kept sorted by threshold, so a change in points only looks at the
+ * thresholds between the old and the new total. Category badges are keyed by task type
+ * or tag and sorted by the number of completions they need, so completing a task only
+ * looks at the badges of that task's categories whose count was just reached. The cost
+ * of an evaluation therefore follows the badges crossed, not the size of the catalog.
+ * Quiz badges are keyed the same way by the number of quizzes finished.
+ */
+class BadgeEngine {
+    private final NavigableMap<Integer, List<String>> pointBadges = new TreeMap<>();
+    private final Map<String, NavigableMap<Integer, List<String>>> categoryBadges = new HashMap<>();
+    private final NavigableMap<Integer, List<String>> quizBadges = new TreeMap<>();
+
+    /**
+     * Registers a badge earned by reaching a number of points.
+     * @param badgeName, name of the badge
+     * @param pointsRequired, points needed
+     */
+    public void addPointsBadge(String badgeName, int pointsRequired) {
+        pointBadges.computeIfAbsent(pointsRequired, key -> new ArrayList<>()).add(badgeName);
+    }
+
+    /**
+     * Registers a badge earned by completing a number of tasks of one category.
+     * @param badgeName, name of the badge
+     * @param category, task type or tag, such as "water"
+     * @param completionsRequired, completed tasks needed in that category
+     */
+    public void addCategoryBadge(String badgeName, String category, int completionsRequired) {
+        categoryBadges.computeIfAbsent(category, key -> new TreeMap<>())
+                .computeIfAbsent(completionsRequired, key -> new ArrayList<>())
+                .add(badgeName);
+    }
+
+    /**
+     * Registers a badge earned by finishing a number of quizzes.
+     * @param badgeName, name of the badge
+     * @param quizzesRequired, quizzes needed
+     */
+    public void addQuizBadge(String badgeName, int quizzesRequired) {
+        quizBadges.computeIfAbsent(quizzesRequired, key -> new ArrayList<>()).add(badgeName);
+    }
+
+    /**
+     * Awards the badges unlocked by a quiz the profile just finished.
+     * @param profile, profile that finished the quiz, with the quiz already in its history
+     * @return names of the newly earned badges
+     */
+    public List<String> onQuizCompleted(Profile profile) {
+        List<String> earned = new ArrayList<>();
+        award(profile, quizBadges.headMap(profile.getQuizHistory().getAttemptCount(), true), earned);
+        return earned;
+    }
+
+    /**
+     * Awards the badges unlocked by a task the profile just completed.
+     * @param profile, profile that completed the task, already updated
+     * @param task, completed task
+     * @param pointsBefore, the profile's points before the task was completed
+     * @return names of the newly earned badges
+     */
+    public List<String> onTaskCompleted(Profile profile, Task task, int pointsBefore) {
+        List<String> earned = onPointsChanged(profile, pointsBefore);
+        checkCategory(profile, task.getType(), earned);
+        for (String tag : task.getTags()) {
+            checkCategory(profile, tag, earned);
+        }
+        return earned;
+    }
+
+    /**
+     * Awards the point badges whose thresholds were crossed.
+     * @param profile, profile whose points changed, already updated
+     * @param pointsBefore, the profile's points before the change
+     * @return names of the newly earned badges
+     */
+    public List<String> onPointsChanged(Profile profile, int pointsBefore) {
+        List<String> earned = new ArrayList<>();
+        if (profile.getPoints() > pointsBefore) {
+            award(profile, pointBadges.subMap(pointsBefore, false, profile.getPoints(), true), earned);
+        }
+        return earned;
+    }
+
+    private void checkCategory(Profile profile, String category, List<String> earned) {
+        NavigableMap<Integer, List<String>> thresholds = categoryBadges.get(category);
+        if (thresholds != null) {
+            int count = profile.getCategoryCount(category);
+            award(profile, thresholds.subMap(count - 1, false, count, true), earned);
+        }
+    }
+
+    /**
+     * Awards every badge the profile qualifies for but does not hold yet, for profiles
+     * that earned badges before they were checked on each completion.
+     * @param profile, profile to check
+     * @return names of the newly earned badges
+     */
+    public List<String> evaluateAll(Profile profile) {
+        List<String> earned = new ArrayList<>();
+        award(profile, pointBadges.headMap(profile.getPoints(), true), earned);
+        for (Map.Entry<String, NavigableMap<Integer, List<String>>> entry : categoryBadges.entrySet()) {
+            int count = profile.getCategoryCount(entry.getKey());
+            award(profile, entry.getValue().headMap(count, true), earned);
+        }
+        award(profile, quizBadges.headMap(profile.getQuizHistory().getAttemptCount(), true), earned);
+        return earned;
+    }
+
+    private static void award(Profile profile, Map<Integer, List<String>> crossed, List<String> earned) {
+        for (List<String> badgeNames : crossed.values()) {
+            for (String badgeName : badgeNames) {
+                if (!profile.hasBadge(badgeName)) {
+                    profile.addBadge(badgeName);
+                    earned.add(badgeName);
+                }
+            }
+        }
+    }
+}
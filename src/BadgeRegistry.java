@@ -0,0 +1,69 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns badge names to small integer ids so profiles can keep their badges in a bitset.
+ *
+ * The known badges are registered first so they get the lowest ids; any other name
+ * found in a saved profile is given the next free id. Ids only live in memory,
+ * saved profiles keep badge names.
+ */
+class BadgeRegistry {
+    private static final List<String> KNOWN_BADGES = Arrays.asList(
+            "Novice", "Beginner", "Intermediate", "Advanced", "Expert", "Master",
+            "Community Champion", "Eco Learner", "Green Innovator", "Water Protector",
+            "Energy Saver", "Zero Waste Hero", "Biodiversity Guardian", "Environmental Advocate",
+            "Climate Defender", "Ocean Defender", "Plastic Fighter", "Forest Guardian",
+            "Clean Air Champion", "Soil Protector", "Wildlife Ally", "Food Sustainability",
+            "Green Transport");
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new ArrayList<>();
+
+    static {
+        for (String name : KNOWN_BADGES) {
+            intern(name);
+        }
+    }
+
+    /**
+     * Gets the id of a badge, registering the name if it is new.
+     * @param name, badge name
+     * @return badge id
+     */
+    public static int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (NAMES) {
+            return IDS.computeIfAbsent(name, key -> {
+                NAMES.add(key);
+                return NAMES.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Gets the id of a badge without registering it.
+     * @param name, badge name
+     * @return badge id, or -1 if no profile has ever held the badge
+     */
+    public static int idOf(String name) {
+        Integer id = IDS.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the name of a badge id.
+     * @param id, badge id
+     * @return badge name
+     */
+    public static String nameOf(int id) {
+        synchronized (NAMES) {
+            return NAMES.get(id);
+        }
+    }
+}
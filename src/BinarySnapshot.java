@@ -0,0 +1,217 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Versioned binary snapshot of the user store, read through a memory-mapped file.
+ *
+ * Layout: a header (magic, version, record count, index offset), the profile
+ * records as length-prefixed blobs, then an index of email to record offset.
+ * Opening a snapshot only maps the file and reads the index; a profile is
+ * decoded the first time it is asked for.
+ */
+class BinarySnapshot {
+    private static final int MAGIC = 0x45435553; // "ECUS"
+    static final int VERSION = 6;
+    private static final int OLDEST_READABLE_VERSION = 1;
+    private static final int INDEX_OFFSET_POSITION = 12;
+    private static final int HEADER_SIZE = 20;
+
+    private final File file;
+    private final int version;
+    private final ByteBuffer buffer;
+    private final Map<String, Integer> index;
+
+    private BinarySnapshot(File file, int version, ByteBuffer buffer, Map<String, Integer> index) {
+        this.file = file;
+        this.version = version;
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    /**
+     * Maps a snapshot file and reads its index.
+     * @param file, snapshot file
+     * @return the opened snapshot
+     */
+    public static BinarySnapshot open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is too large to map");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a user snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version < OLDEST_READABLE_VERSION || version > VERSION) {
+            throw new IOException("Unsupported user snapshot version " + version + " in " + file);
+        }
+        int count = buffer.getInt(8);
+        long indexOffset = buffer.getLong(INDEX_OFFSET_POSITION);
+
+        Map<String, Integer> index = new HashMap<>(count * 2);
+        ByteBuffer reader = buffer.duplicate();
+        reader.position((int) indexOffset);
+        for (int i = 0; i < count; i++) {
+            byte[] email = new byte[reader.getInt()];
+            reader.get(email);
+            index.put(new String(email, StandardCharsets.UTF_8), (int) reader.getLong());
+        }
+        return new BinarySnapshot(file, version, buffer, index);
+    }
+
+    /**
+     * Getter, gets the mapped snapshot file
+     * @return file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Checks if the snapshot still holds an undecoded profile for the email.
+     * @param email, user's email
+     * @return true if present
+     */
+    public synchronized boolean contains(String email) {
+        return index.containsKey(email);
+    }
+
+    /**
+     * Decodes a profile and removes it from the snapshot's index, after which the
+     * caller owns it.
+     * @param email, user's email
+     * @return the profile, or null if the snapshot does not hold it
+     */
+    public synchronized Profile take(String email) throws IOException {
+        Integer offset = index.remove(email);
+        if (offset == null) {
+            return null;
+        }
+        return decode(offset);
+    }
+
+    /**
+     * Drops a profile that has been replaced or deleted elsewhere.
+     * @param email, user's email
+     */
+    public synchronized void forget(String email) {
+        index.remove(email);
+    }
+
+    /**
+     * Getter, gets a copy of the index of profiles that have not been decoded yet
+     * @return email to record offset
+     */
+    public synchronized Map<String, Integer> remaining() {
+        return new HashMap<>(index);
+    }
+
+    /**
+     * Decodes every remaining profile, emptying the index.
+     * @return the decoded profiles
+     */
+    public synchronized List<Profile> takeAll() throws IOException {
+        List<Profile> profiles = new ArrayList<>(index.size());
+        for (int offset : index.values()) {
+            profiles.add(decode(offset));
+        }
+        index.clear();
+        return profiles;
+    }
+
+    private Profile decode(int offset) throws IOException {
+        byte[] record = record(offset);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            return Profile.readFrom(in, version);
+        } catch (IOException e) {
+            throw new IOException("Corrupt record at " + offset + " in " + file, e);
+        }
+    }
+
+    private byte[] record(int offset) {
+        ByteBuffer reader = buffer.duplicate();
+        reader.position(offset);
+        byte[] record = new byte[reader.getInt()];
+        reader.get(record);
+        return record;
+    }
+
+    /**
+     * Encodes a profile as a snapshot record. Called while the profile cannot change,
+     * so the snapshot can be written later from the bytes alone.
+     * @param profile, profile to encode
+     * @return the record
+     */
+    public static byte[] encode(Profile profile) throws IOException {
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        try (DataOutputStream record = new DataOutputStream(recordBytes)) {
+            profile.writeTo(record);
+        }
+        return recordBytes.toByteArray();
+    }
+
+    /**
+     * Writes a snapshot. Profiles still undecoded in the source snapshot are
+     * copied over as raw records without being decoded, unless the source was
+     * written by an older version of the format.
+     * @param file, file to write
+     * @param records, email to record of the decoded profiles, from {@link #encode}
+     * @param source, snapshot to copy undecoded records from, may be null
+     * @param sourceRecords, email to record offset of the records to copy from the source
+     */
+    public static void write(File file, Map<String, byte[]> records,
+                             BinarySnapshot source, Map<String, Integer> sourceRecords) throws IOException {
+        List<String> emails = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+
+        long indexOffset;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size() + sourceRecords.size());
+            out.writeLong(0); // index offset, patched below
+
+            for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+                emails.add(entry.getKey());
+                offsets.add((long) out.size());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            for (Map.Entry<String, Integer> entry : sourceRecords.entrySet()) {
+                byte[] raw;
+                if (source.version == VERSION) {
+                    raw = source.record(entry.getValue());
+                } else {
+                    raw = encode(source.decode(entry.getValue()));
+                }
+                emails.add(entry.getKey());
+                offsets.add((long) out.size());
+                out.writeInt(raw.length);
+                out.write(raw);
+            }
+
+            indexOffset = out.size();
+            for (int i = 0; i < emails.size(); i++) {
+                byte[] email = emails.get(i).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(email.length);
+                out.write(email);
+                out.writeLong(offsets.get(i));
+            }
+        }
+
+        try (RandomAccessFile patch = new RandomAccessFile(file, "rw")) {
+            patch.seek(INDEX_OFFSET_POSITION);
+            patch.writeLong(indexOffset);
+        }
+    }
+}
@@ -1,8 +1,37 @@
 /**
  * Implements the back end and mathematics behind the front-end
  * components within the main "createCarbonFootprintPanel()" method.
+ *
+ * The factors come from {@link EmissionFactors}. {@link #calculate(FootprintInput)}
+ * computes every category and the total in one evaluation from an input parsed once;
+ * the methods taking option names resolve them to ordinals and call the ordinal
+ * versions, which only index arrays.
  */
 class CarbonFootprintCalculator {
+    private final EmissionFactors factors;
+
+    /**
+     * Constructor, creates a calculator using the shared emission factors
+     */
+    public CarbonFootprintCalculator() {
+        this(EmissionFactors.shared());
+    }
+
+    /**
+     * Constructor, creates a calculator using the given emission factors
+     * @param factors, emission factors
+     */
+    public CarbonFootprintCalculator(EmissionFactors factors) {
+        this.factors = factors;
+    }
+
+    /**
+     * Getter, gets the emission factors used by this calculator
+     * @return factors
+     */
+    public EmissionFactors getFactors() {
+        return factors;
+    }
 
     /**
      * Uses the average carbon footprint (by country) to start the calculation.
@@ -11,17 +40,16 @@ class CarbonFootprintCalculator {
      * @return average footprint of a person living in the chosen country
      */
     public double calculateGeneralFootprint(String country) {
-        switch (country) {
-            case "USA": return 15.0;
-            case "Canada": return 14.2;
-            case "UK": return 9.8;
-            case "China": return 7.5;
-            case "India": return 1.9;
-            case "Brazil": return 2.3;
-            case "Australia": return 16.8;
-            case "Other": return 5.0;
-            default: return 2.0;
-        }
+        return calculateGeneralFootprint(factors.getCountries().ordinal(country));
+    }
+
+    /**
+     * Gets the average footprint of a person living in a country.
+     * @param country, country ordinal from {@link EmissionFactors#getCountries()}
+     * @return average footprint of a person living in the chosen country
+     */
+    public double calculateGeneralFootprint(int country) {
+        return factors.countryFootprint(country);
     }
 
     /**
@@ -33,7 +61,20 @@ class CarbonFootprintCalculator {
      * @return total C02 emissions from car and plane
      */
     public double calculateTransportationFootprint(int carMilesPerWeek, String vehicleType, String fuelType, int flightsPerYear) {
-        double carFootprint = calculateCarFootprint(carMilesPerWeek, vehicleType, fuelType);
+        return calculateTransportationFootprint(carMilesPerWeek, factors.getVehicles().ordinal(vehicleType),
+                factors.getFuels().ordinal(fuelType), flightsPerYear);
+    }
+
+    /**
+     * Calculates the carbon footprint associated with transportation such as by car and plane.
+     * @param carMilesPerWeek, number of miles driven in a week
+     * @param vehicle, vehicle ordinal
+     * @param fuel, fuel ordinal
+     * @param flightsPerYear, number of flights taken per year
+     * @return total C02 emissions from car and plane
+     */
+    public double calculateTransportationFootprint(int carMilesPerWeek, int vehicle, int fuel, int flightsPerYear) {
+        double carFootprint = calculateCarFootprint(carMilesPerWeek, vehicle, fuel);
         double flightFootprint = calculateFlightFootprint(flightsPerYear);
         return carFootprint + flightFootprint;
     }
@@ -43,112 +84,99 @@ class CarbonFootprintCalculator {
      * Since SUVs are less fuel efficient than a hybrid, for example, the calculator must
      * take into account the model of car driven.
      * @param carMilesPerWeek, number of miles driven by the car in a week
-     * @param vehicleType, type of vehicle
-     * @param fuelType, type of fuel
-     * @return totalEmissions / 1000
-     */
-    private double calculateCarFootprint(int carMilesPerWeek, String vehicleType, String fuelType) {
-        double yearlyMiles = carMilesPerWeek * 52;
-        double emissionsFactor = 0;
-        switch (vehicleType) {
-            case "SUV": emissionsFactor = 0.44; break;
-            case "Sedan": emissionsFactor = 0.35; break;
-            case "Truck": emissionsFactor = 0.55; break;
-            case "Compact Car": emissionsFactor = 0.30; break;
-            case "Hybrid": emissionsFactor = 0.22; break;
-            case "Electric Vehicle": emissionsFactor = 0.10; break;
-            case "None": return 0.0;
-            default: emissionsFactor = 0.35; break;
-        }
-
-        switch (fuelType) {
-            case "Gas": break;
-            case "Diesel": emissionsFactor *= 1.15; break;
-            case "Electric": emissionsFactor = 0.10; break;
-            case "Hybrid": emissionsFactor *= 0.75; break;
-            default: break;
-        }
-
-        double totalEmissions = yearlyMiles * emissionsFactor;
-        return totalEmissions / 1000;
+     * @param vehicle, vehicle ordinal
+     * @param fuel, fuel ordinal
+     * @return yearly emissions in tonnes
+     */
+    double calculateCarFootprint(double carMilesPerWeek, int vehicle, int fuel) {
+        return carMilesPerWeek * factors.carFactor(vehicle, fuel);
     }
 
     /**
-     * Calculates flight carbon footprint by multiplying total flights taken by 0.5
+     * Calculates flight carbon footprint by multiplying total flights taken by the footprint of a flight
      * @param flightsPerYear, number of flights taken per year
      * @return carbon footprint via airplanes
      */
-    private double calculateFlightFootprint(int flightsPerYear) {
-        double emissionsPerFlight = 0.5;
-        return flightsPerYear * emissionsPerFlight;
+    double calculateFlightFootprint(double flightsPerYear) {
+        return flightsPerYear * factors.getPerFlight();
     }
 
     /**
      * Calculates food carbon footprint by returning the average
      * carbon footprint of a person with a vegan, vegetarian, pescatarian, omnivore,
-     * or keto diet. The default diet is none with a average footprint of 3.
+     * or keto diet, adjusted for meat consumption. The default diet is none with a average footprint of 3.
      * @param dietType, type of diet
      * @param meatConsumption, how much meat consumed (meat is the main contributing factor to the footprint here)
      * @return base value (food)
      */
     public double calculateFoodFootprint(String dietType, int meatConsumption) {
-        double baseFoodprint = 0;
-        switch (dietType) {
-            case "Vegan": baseFoodprint = 1.5; break;
-            case "Vegetarian": baseFoodprint = 2.1; break;
-            case "Pescatarian": baseFoodprint = 2.5; break;
-            case "Omnivore": baseFoodprint = 3.3; break;
-            case "Keto": baseFoodprint = 3.6; break;
-            case "Other": baseFoodprint = 3.0; break;
-            default: baseFoodprint = 3.0; break;
-        }
+        return calculateFoodFootprint(factors.getDiets().ordinal(dietType), meatConsumption);
+    }
 
-        if (!dietType.equals("Vegan") && !dietType.equals("Vegetarian")) {
-            if (meatConsumption <= 3) {
-                baseFoodprint *= 0.8; // Reduced meat consumption
-            } else if (meatConsumption >= 14) {
-                baseFoodprint *= 1.4; // High meat consumption
-            } else if (meatConsumption >= 7) {
-                baseFoodprint *= 1.2; // Moderate-high meat consumption
-            }
-        }
-        return baseFoodprint;
+    /**
+     * Calculates food carbon footprint.
+     * @param diet, diet ordinal
+     * @param meatConsumption, servings of meat per week
+     * @return base value (food)
+     */
+    public double calculateFoodFootprint(int diet, int meatConsumption) {
+        return factors.dietFootprint(diet, meatConsumption);
     }
 
     /**
      * Calculates electricty carbon footprint (such as within the home, AC, lights, etc)
      * @param electricityUsage, amount of electricity used
      * @param energySource, electricity type
-     * @return totalEmissions / 1000
+     * @return yearly emissions in tonnes
      */
     public double calculateEnergyFootprint(double electricityUsage, String energySource) {
-        double yearlyUsage = electricityUsage * 12;
-
-        double emissionFactor = 0;
-        switch (energySource) {
-            case "Coal": emissionFactor = 0.9; break;
-            case "Natural Gas": emissionFactor = 0.4; break;
-            case "Nuclear": emissionFactor = 0.02; break;
-            case "Solar": emissionFactor = 0.05; break;
-            case "Wind": emissionFactor = 0.02; break;
-            case "Hydroelectric": emissionFactor = 0.03; break;
-            case "Other": emissionFactor = 0.5; break;
-            default: emissionFactor = 0.5; break;
-        }
-        double totalEmissions = yearlyUsage * emissionFactor;
-        return totalEmissions / 1000;
+        return calculateEnergyFootprint(electricityUsage, factors.getEnergySources().ordinal(energySource));
+    }
+
+    /**
+     * Calculates electricty carbon footprint.
+     * @param electricityUsage, amount of electricity used per month
+     * @param energySource, energy source ordinal
+     * @return yearly emissions in tonnes
+     */
+    public double calculateEnergyFootprint(double electricityUsage, int energySource) {
+        return electricityUsage * factors.energyFactor(energySource);
     }
 
     /**
      * Calculates footprint based on waste produced (in the home mainly)
      * @param wasteProduced, amount of waste produced
-     * @return totalEmissions / 1000
+     * @return yearly emissions in tonnes
      */
     public double calculateWasteFootprint(double wasteProduced) {
-        double yearlyWaste = wasteProduced * 52;
-        double emissionFactor = 0.5;
-        double totalEmissions = yearlyWaste * emissionFactor;
-        return totalEmissions / 1000;
+        return wasteProduced * factors.getWasteFactor();
+    }
+
+    /**
+     * Calculates every category and the total in one evaluation.
+     * @param input, the user's answers
+     * @return the breakdown
+     */
+    public FootprintBreakdown calculate(FootprintInput input) {
+        if (input.getFactors() != factors) {
+            throw new IllegalArgumentException("Input was resolved against other emission factors");
+        }
+        double general = calculateGeneralFootprint(input.getCountry());
+        double transportation = calculateTransportationFootprint(input.getCarMilesPerWeek(), input.getVehicle(),
+                input.getFuel(), input.getFlightsPerYear());
+        double food = calculateFoodFootprint(input.getDiet(), input.getMeatConsumption());
+        double energy = calculateEnergyFootprint(input.getElectricityUsage(), input.getEnergySource());
+        double waste = calculateWasteFootprint(input.getWasteProduced());
+        return new FootprintBreakdown(general, transportation, food, energy, waste,
+                total(general, transportation, food, energy, waste));
+    }
+
+    /**
+     * Adds the category footprints up to the total, counting only part of the country average.
+     * @return total footprint
+     */
+    double total(double general, double transportation, double food, double energy, double waste) {
+        return (general * factors.getGeneralWeight()) + transportation + food + energy + waste;
     }
 
     /**
@@ -167,11 +195,7 @@ class CarbonFootprintCalculator {
      * @return total footprint!!
      */
     public double calculateTotalFootprint(String country, int carMilesPerWeek, String vehicleType, String fuelType, int flightsPerYear, String dietType, int meatConsumption, double electricityUsage, String energySource, double wasteProduced) {
-        double generalFootprint = calculateGeneralFootprint(country);
-        double transportationFootprint = calculateTransportationFootprint(carMilesPerWeek, vehicleType, fuelType, flightsPerYear);
-        double foodFootprint = calculateFoodFootprint(dietType, meatConsumption);
-        double energyFootprint = calculateEnergyFootprint(electricityUsage, energySource);
-        double wasteFootprint = calculateWasteFootprint(wasteProduced);
-        return (generalFootprint * 0.3) + transportationFootprint + foodFootprint + energyFootprint + wasteFootprint;
+        return calculate(FootprintInput.of(factors, country, carMilesPerWeek, vehicleType, fuelType, flightsPerYear,
+                dietType, meatConsumption, electricityUsage, energySource, wasteProduced)).getTotal();
     }
 }
@@ -18,10 +18,24 @@ public class DashboardPanel extends JPanel {
     private JPanel contentPanel;
     private JPanel tasksPanel;
     private JPanel badgesPanel;
-    private UserManager userManager;;
+    private UserManager userManager;
     private CardLayout contentCardLayout;
     private Color primaryColor = new Color(33, 150, 83);
-    private Map<String, Badge> badgeTypes = new HashMap<>();
+    private Map<String, Badge> badgeTypes;
+    private Map<String, Badge> badgesByName = new HashMap<>();
+    private BadgeEngine badgeEngine = new BadgeEngine();
+    private static final String QUIZ_BADGE_CATEGORY = "quiz"; // badges counted in finished quizzes, not tasks
+    private final UserManager.ProfileListener profileListener = new UserManager.ProfileListener() {
+        @Override
+        public void profileChanged(Profile profile) {
+            SwingUtilities.invokeLater(() -> showProfile(profile));
+        }
+
+        @Override
+        public void profileDeleted(String email) {
+            SwingUtilities.invokeLater(() -> closeForDeletedProfile(email));
+        }
+    };
 
     /**
      * Creates a DashboardPanel for the given application model and user profile.
@@ -33,9 +47,12 @@ public class DashboardPanel extends JPanel {
         this.model = model;
         this.taskManager = model.getTaskManager();
         this.currentUser = currentUser;
-        userManager = new UserManager();
+        userManager = model.getUserManager();
 
         initializeBadges();
+        if (!badgeEngine.evaluateAll(currentUser).isEmpty()) {
+            userManager.updateProfile(currentUser);
+        }
         setLayout(new BorderLayout());
 
         contentCardLayout = new CardLayout();
@@ -45,6 +62,51 @@ public class DashboardPanel extends JPanel {
         add(contentPanel, BorderLayout.CENTER);
     }
 
+    /**
+     * Starts following profile changes made elsewhere, such as quiz badge awards, once the dashboard is shown.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        userManager.addProfileListener(profileListener);
+    }
+
+    /**
+     * Stops following profile changes when the dashboard window is closed.
+     */
+    @Override
+    public void removeNotify() {
+        userManager.removeProfileListener(profileListener);
+        super.removeNotify();
+    }
+
+    /**
+     * Redraws the points and badges after the user's profile changed.
+     * @param profile, the changed profile
+     */
+    private void showProfile(Profile profile) {
+        if (!currentUser.getEmail().equals(profile.getEmail())) {
+            return;
+        }
+        currentUser = profile;
+        refreshBadgesPanel();
+        refreshHeaderPoints();
+    }
+
+    /**
+     * Closes the dashboard window when its user's profile was deleted.
+     * @param email, email of the deleted profile
+     */
+    private void closeForDeletedProfile(String email) {
+        if (!currentUser.getEmail().equals(email)) {
+            return;
+        }
+        Window window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.dispose();
+        }
+    }
+
     /**
      * Builds the main dashboard content, including tasks, badges, and explore sections.
      * @return The main content panel.
@@ -203,9 +265,10 @@ public class DashboardPanel extends JPanel {
 
         statusCheckBox.addActionListener(e -> {
             if (statusCheckBox.isSelected() && !isCompleted) {
+                int pointsBefore = currentUser.getPoints();
                 taskManager.completeTask(currentUser, task);
                 currentUser.addPoints(task.getPointsValue());
-                List<Badge> newBadges = checkForNewBadges();
+                List<Badge> newBadges = checkForNewBadges(task, pointsBefore);
                 String message = "Great job! You earned " + task.getPointsValue() + " points!";
                 if (!newBadges.isEmpty()) {
                     message += "\n\nYou've also earned new badges:";
@@ -220,7 +283,7 @@ public class DashboardPanel extends JPanel {
 
                 refreshBadgesPanel();
                 refreshHeaderPoints();
-                userManager.saveData();
+                userManager.updateProfile(currentUser);
             }
         });
         return taskPanel;
@@ -316,21 +379,15 @@ public class DashboardPanel extends JPanel {
     }
 
     /**
-     * Checks if the user has earned any new badges.
+     * Checks if the user has earned any new badges by completing a task.
+     * @param task The task that was just completed.
+     * @param pointsBefore The user's points before the task was completed.
      * @return A list of new badges earned.
      */
-    private List<Badge> checkForNewBadges() {
+    private List<Badge> checkForNewBadges(Task task, int pointsBefore) {
         List<Badge> newBadges = new ArrayList<>();
-        int currentPoints = currentUser.getPoints();
-
-        for (Badge badge : badgeTypes.values()) {
-            if (badge.getPointsRequired() > 0) {
-                if (currentPoints >= badge.getPointsRequired() &&
-                        !currentUser.hasBadge(badge.getName())) {
-                    currentUser.addBadge(badge.getName());
-                    newBadges.add(badge);
-                }
-            }
+        for (String badgeName : badgeEngine.onTaskCompleted(currentUser, task, pointsBefore)) {
+            newBadges.add(badgesByName.get(badgeName));
         }
         return newBadges;
     }
@@ -372,7 +429,12 @@ public class DashboardPanel extends JPanel {
                     badge.getDescription() :
                     (badge.getPointsRequired() > 0 ?
                             "Requires " + badge.getPointsRequired() + " points to unlock" :
-                            "Complete special tasks to unlock this badge");
+                            QUIZ_BADGE_CATEGORY.equals(badge.getCategory()) ?
+                                    "Finish " + badge.getCompletionsRequired() + " quizzes to unlock this badge" :
+                            badge.getCategory() != null ?
+                                    "Complete " + badge.getCompletionsRequired() + " "
+                                            + badge.getCategory().replace('_', ' ') + " tasks to unlock this badge" :
+                                    "Complete special tasks to unlock this badge");
 
             JPanel detailPanel = new JPanel(new BorderLayout(0, 10));
             detailPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -580,6 +642,8 @@ public class DashboardPanel extends JPanel {
         private int pointsRequired;
         private Color color;
         private String icon;
+        private String category;
+        private int completionsRequired;
 
         public Badge(String name, String description, int pointsRequired, Color color, String icon) {
             this.name = name;
@@ -589,6 +653,17 @@ public class DashboardPanel extends JPanel {
             this.icon = icon;
         }
 
+        /**
+         * Creates a badge earned by completing tasks of one category.
+         * @param category task type or tag that counts toward the badge
+         * @param completionsRequired number of completed tasks needed
+         */
+        public Badge(String name, String description, Color color, String icon, String category, int completionsRequired) {
+            this(name, description, 0, color, icon);
+            this.category = category;
+            this.completionsRequired = completionsRequired;
+        }
+
         public String getName() {
             return name;
         }
@@ -608,6 +683,14 @@ public class DashboardPanel extends JPanel {
         public String getIcon() {
             return icon;
         }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getCompletionsRequired() {
+            return completionsRequired;
+        }
     }
 
     /**
@@ -660,18 +743,16 @@ public class DashboardPanel extends JPanel {
         badgeGrid.setBackground(Color.WHITE);
         badgeGrid.setAlignmentX(Component.LEFT_ALIGNMENT);
 
-        List<String> userBadges = currentUser.getBadges();
-
         for (Badge badge : badgeTypes.values()) {
             if (badge.getPointsRequired() > 0) {
-                boolean isEarned = userBadges.contains(badge.getName());
+                boolean isEarned = currentUser.hasBadge(badge.getName());
                 JPanel badgePanel = createBadgeButton(badge, isEarned);
                 badgeGrid.add(badgePanel);
             }
         }
         for (Badge badge : badgeTypes.values()) {
             if (badge.getPointsRequired() == 0) {
-                boolean isEarned = userBadges.contains(badge.getName());
+                boolean isEarned = currentUser.hasBadge(badge.getName());
                 JPanel badgePanel = createBadgeButton(badge, isEarned);
                 badgeGrid.add(badgePanel);
             }
@@ -765,28 +846,66 @@ public class DashboardPanel extends JPanel {
      * Initializes the available badge types and their requirements.
      */
     private void initializeBadges() {
+        badgeTypes = defineBadges();
+        for (Badge badge : badgeTypes.values()) {
+            badgesByName.put(badge.getName(), badge);
+        }
+        registerBadges(badgeTypes.values(), badgeEngine);
+    }
+
+    /**
+     * Creates a badge engine that knows every badge, for awarding badges outside the dashboard,
+     * such as when a quiz ends.
+     * @return the engine
+     */
+    static BadgeEngine createBadgeEngine() {
+        BadgeEngine engine = new BadgeEngine();
+        registerBadges(defineBadges().values(), engine);
+        return engine;
+    }
+
+    /**
+     * Defines the available badge types and their requirements.
+     * @return badge key to badge
+     */
+    private static Map<String, Badge> defineBadges() {
+        Map<String, Badge> badgeTypes = new HashMap<>();
         badgeTypes.put("novice", new Badge("Novice", "Starting your sustainability journey", 10, new Color(173, 216, 230), "🌱"));
         badgeTypes.put("beginner", new Badge("Beginner", "Making regular eco-friendly choices", 20, new Color(135, 206, 235), "🌿"));
         badgeTypes.put("intermediate", new Badge("Intermediate", "Taking significant steps to reduce impact", 40, new Color(0, 191, 255), "🌍"));
         badgeTypes.put("advanced", new Badge("Advanced", "Adopting a sustainable lifestyle", 80, new Color(30, 144, 255), "🌊"));
         badgeTypes.put("expert", new Badge("Expert", "Leading by example in sustainability", 160, new Color(0, 0, 205), "⭐"));
         badgeTypes.put("master", new Badge("Master", "Mastering sustainable living", 320, new Color(75, 0, 130), "🏆"));
-        badgeTypes.put("community", new Badge("Community Champion", "Building environmental community connections", 0, new Color(135, 206, 250), "🤝"));
-        badgeTypes.put("learning", new Badge("Eco Learner", "Expanding environmental knowledge", 0, new Color(173, 216, 230), "🧩"));
-        badgeTypes.put("innovation", new Badge("Green Innovator", "Finding creative eco solutions", 0, new Color(152, 251, 152), "💡"));
-        badgeTypes.put("water", new Badge("Water Protector", "Conserving and protecting water resources", 0, new Color(30, 144, 255), "💧"));
-        badgeTypes.put("energy", new Badge("Energy Saver", "Reducing energy consumption", 0, new Color(255, 215, 0), "⚡"));
-        badgeTypes.put("waste", new Badge("Zero Waste Hero", "Minimizing waste production", 0, new Color(255, 182, 193), "♻️"));
-        badgeTypes.put("biodiversity", new Badge("Biodiversity Guardian", "Protecting plants and wildlife", 0, new Color(152, 251, 152), "🌺"));
-        badgeTypes.put("advocacy", new Badge("Environmental Advocate", "Spreading awareness and advocacy", 0, new Color(255, 99, 71), "🏅"));
-        badgeTypes.put("climate", new Badge("Climate Defender", "Taking action against climate change", 0, new Color(147, 112, 219), "🌀"));
-        badgeTypes.put("oceans", new Badge("Ocean Defender", "Taking action to protect marine ecosystems", 0, new Color(0, 105, 148), "🐠"));
-        badgeTypes.put("plastic", new Badge("Plastic Fighter", "Reducing plastic pollution in the environment", 0, new Color(255, 64, 129), "🚫"));
-        badgeTypes.put("forest", new Badge("Forest Guardian", "Protecting and preserving forest ecosystems", 0, new Color(76, 175, 80), "🌲"));
-        badgeTypes.put("air", new Badge("Clean Air Champion", "Taking steps to reduce air pollution", 0, new Color(178, 235, 242), "💨"));
-        badgeTypes.put("soil", new Badge("Soil Protector", "Preserving soil health and preventing erosion", 0, new Color(121, 85, 72), "🌰"));
-        badgeTypes.put("wildlife", new Badge("Wildlife Ally", "Supporting and protecting endangered species", 0, new Color(255, 193, 7), "🦁"));
-        badgeTypes.put("sustainable_food", new Badge("Food Sustainability", "Supporting sustainable agriculture practices", 0, new Color(139, 195, 74), "🥗"));
-        badgeTypes.put("transport", new Badge("Green Transport", "Using eco-friendly transportation methods", 0, new Color(103, 58, 183), "🚲"));
+        badgeTypes.put("community", new Badge("Community Champion", "Building environmental community connections", new Color(135, 206, 250), "🤝", "community", 3));
+        badgeTypes.put("learning", new Badge("Eco Learner", "Expanding environmental knowledge", new Color(173, 216, 230), "🧩", QUIZ_BADGE_CATEGORY, 3));
+        badgeTypes.put("innovation", new Badge("Green Innovator", "Finding creative eco solutions", new Color(152, 251, 152), "💡", "innovation", 3));
+        badgeTypes.put("water", new Badge("Water Protector", "Conserving and protecting water resources", new Color(30, 144, 255), "💧", "water", 3));
+        badgeTypes.put("energy", new Badge("Energy Saver", "Reducing energy consumption", new Color(255, 215, 0), "⚡", "energy", 5));
+        badgeTypes.put("waste", new Badge("Zero Waste Hero", "Minimizing waste production", new Color(255, 182, 193), "♻️", "waste", 5));
+        badgeTypes.put("biodiversity", new Badge("Biodiversity Guardian", "Protecting plants and wildlife", new Color(152, 251, 152), "🌺", "biodiversity", 2));
+        badgeTypes.put("advocacy", new Badge("Environmental Advocate", "Spreading awareness and advocacy", new Color(255, 99, 71), "🏅", "advocacy", 3));
+        badgeTypes.put("climate", new Badge("Climate Defender", "Taking action against climate change", new Color(147, 112, 219), "🌀", "climate", 3));
+        badgeTypes.put("oceans", new Badge("Ocean Defender", "Taking action to protect marine ecosystems", new Color(0, 105, 148), "🐠", "oceans", 2));
+        badgeTypes.put("plastic", new Badge("Plastic Fighter", "Reducing plastic pollution in the environment", new Color(255, 64, 129), "🚫", "plastic", 3));
+        badgeTypes.put("forest", new Badge("Forest Guardian", "Protecting and preserving forest ecosystems", new Color(76, 175, 80), "🌲", "forest", 2));
+        badgeTypes.put("air", new Badge("Clean Air Champion", "Taking steps to reduce air pollution", new Color(178, 235, 242), "💨", "air", 3));
+        badgeTypes.put("soil", new Badge("Soil Protector", "Preserving soil health and preventing erosion", new Color(121, 85, 72), "🌰", "soil", 2));
+        badgeTypes.put("wildlife", new Badge("Wildlife Ally", "Supporting and protecting endangered species", new Color(255, 193, 7), "🦁", "wildlife", 2));
+        badgeTypes.put("sustainable_food", new Badge("Food Sustainability", "Supporting sustainable agriculture practices", new Color(139, 195, 74), "🥗", "sustainable_food", 2));
+        badgeTypes.put("transport", new Badge("Green Transport", "Using eco-friendly transportation methods", new Color(103, 58, 183), "🚲", "transport", 3));
+
+        return badgeTypes;
+    }
+
+    private static void registerBadges(Collection<Badge> badges, BadgeEngine engine) {
+        for (Badge badge : badges) {
+            if (badge.getPointsRequired() > 0) {
+                engine.addPointsBadge(badge.getName(), badge.getPointsRequired());
+            } else if (QUIZ_BADGE_CATEGORY.equals(badge.getCategory())) {
+                engine.addQuizBadge(badge.getName(), badge.getCompletionsRequired());
+            } else if (badge.getCategory() != null) {
+                engine.addCategoryBadge(badge.getName(), badge.getCategory(), badge.getCompletionsRequired());
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+/**
+ * How hard a quiz question is.
+ */
+public enum Difficulty {
+    EASY("Easy"),
+    MEDIUM("Medium"),
+    HARD("Hard");
+
+    private static final Difficulty[] VALUES = values();
+    private final String displayName;
+
+    Difficulty(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Getter, gets the name shown to users
+     * @return displayName
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Looks up a difficulty by its ordinal, as stored in compact question data.
+     * @param ordinal, difficulty ordinal
+     * @return the difficulty
+     */
+    public static Difficulty fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Looks up a difficulty by its display name.
+     * @param displayName, name such as "Hard"
+     * @return the difficulty
+     */
+    public static Difficulty fromDisplayName(String displayName) {
+        for (Difficulty difficulty : VALUES) {
+            if (difficulty.displayName.equals(displayName)) {
+                return difficulty;
+            }
+        }
+        throw new IllegalArgumentException("Unknown difficulty: " + displayName);
+    }
+}
@@ -6,6 +6,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.awt.geom.RoundRectangle2D;
 import javax.swing.plaf.basic.BasicButtonUI;
 
@@ -23,14 +25,23 @@ public class EcoSparkApp extends JFrame {
     private TaskManager taskManager;
     private Map<String, JComponent> formFields = new HashMap<>();
     private JPanel carbonFootprintPanel;
-    private QuizBackend backend = new QuizBackend();
+    private static final boolean ADAPTIVE_QUIZ = Boolean.getBoolean("ecospark.quiz.adaptive");
+    private static final int FOOTPRINT_CACHE_SIZE = Integer.getInteger("ecospark.footprint.cacheSize", 0);
+    private static final int UNCERTAINTY_DRAWS = 20000;
+    private static final double UNCERTAINTY_INPUT_SPREAD = 0.1;
+    private QuizBackend backend;
     private JFrame quizFrame;
     private JPanel quizPanel;
     private JLabel questionLabel;
     private JButton[] optionButtons;
     private UserManager userManager;
+    private BadgeEngine quizBadgeEngine; // created when the first quiz ends
 
     CarbonFootprintCalculator calculator = new CarbonFootprintCalculator();
+    private final FootprintCache footprintCache = FOOTPRINT_CACHE_SIZE > 0 ? new FootprintCache(FOOTPRINT_CACHE_SIZE) : null;
+    private final FootprintUncertaintyAnalysis uncertaintyAnalysis =
+            new FootprintUncertaintyAnalysis(calculator, ForkJoinPool.commonPool());
+    private SwingWorker<FootprintUncertaintyAnalysis.Result, Void> uncertaintyWorker; // latest range estimate, if running
 
     /**
      * Main method
@@ -49,7 +60,28 @@ public class EcoSparkApp extends JFrame {
      */
     public EcoSparkApp() {
         model = new ApplicationModel();
-        userManager = new UserManager();
+        userManager = model.getUserManager();
+        userManager.addProfileListener(new UserManager.ProfileListener() {
+            @Override
+            public void profileChanged(Profile profile) {
+                SwingUtilities.invokeLater(() -> {
+                    // Screens are built from currentUser when opened, so they pick up the latest copy
+                    if (currentUser != null && currentUser.getEmail().equals(profile.getEmail())) {
+                        currentUser = profile;
+                    }
+                });
+            }
+
+            @Override
+            public void profileDeleted(String email) {
+                SwingUtilities.invokeLater(() -> {
+                    if (currentUser != null && currentUser.getEmail().equals(email)) {
+                        currentUser = null;
+                    }
+                });
+            }
+        });
+        QuizDeckPool.shared(); // starts drawing quiz decks in the background
 
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
@@ -280,7 +312,7 @@ public class EcoSparkApp extends JFrame {
 
     @Override
     public void dispose() {
-        userManager.saveData();
+        model.close();
         super.dispose();
     }
 
@@ -419,7 +451,7 @@ public class EcoSparkApp extends JFrame {
             }
 
             if (clickedButton != null) {
-                backend.checkAnswer(clickedButton.getName());
+                backend.checkAnswer(Integer.parseInt(clickedButton.getName()));
                 loadQuestion();
             }
         });
@@ -428,6 +460,33 @@ public class EcoSparkApp extends JFrame {
         return quizPanel;
     }
 
+    /**
+     * Creates the backend for a new quiz. A logged in user's missed questions are
+     * scheduled for review, and they are offered a review quiz when some are due.
+     * @return quiz backend
+     */
+    private QuizBackend createQuizBackend() {
+        if (!isUserLoggedIn()) {
+            return ADAPTIVE_QUIZ ? new QuizBackend(new QuizBackend.Options().adaptive())
+                    : new QuizBackend(QuizDeckPool.shared().take());
+        }
+        ReviewSchedule schedule = currentUser.getReviewSchedule();
+        schedule.checkBank(QuestionBank.shared().getContentHash());
+        int due = schedule.getDueCount(System.currentTimeMillis());
+        if (due > 0) {
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "You have " + due + " missed question" + (due == 1 ? "" : "s") + " due for review. Start with those?",
+                    "Review Missed Questions",
+                    JOptionPane.YES_NO_OPTION);
+            if (choice == JOptionPane.YES_OPTION) {
+                return new QuizBackend(new QuizBackend.Options().review(schedule));
+            }
+        }
+        return ADAPTIVE_QUIZ
+                ? new QuizBackend(new QuizBackend.Options().adaptive(currentUser.getQuizRating()).reviewSchedule(schedule))
+                : new QuizBackend(QuizDeckPool.shared().take(), schedule);
+    }
+
     /**
      * Loads the next question in the quiz.
      */
@@ -437,17 +496,16 @@ public class EcoSparkApp extends JFrame {
                 button.setBackground(Color.WHITE);
             }
 
-            Map<String, Object> qData = backend.getCurrentQuestion();
-            questionLabel.setText((String) qData.get("questionText"));
-            List<String> options = (List<String>) qData.get("options");
+            Question question = backend.getCurrentQuestion();
+            questionLabel.setText(question.getText());
             for (int i = 0; i < 4; i++) {
-                optionButtons[i].setName(options.get(i));
+                optionButtons[i].setName(Integer.toString(i));
                 for (Component comp : optionButtons[i].getComponents()) {
                     if (comp instanceof JPanel) {
                         JPanel panel = (JPanel) comp;
                         for (Component innerComp : panel.getComponents()) {
                             if (innerComp instanceof JLabel && !(((JLabel) innerComp).getText().equals("●"))) {
-                                ((JLabel) innerComp).setText(options.get(i));
+                                ((JLabel) innerComp).setText(question.getOption(i));
                                 break;
                             }
                         }
@@ -465,6 +523,27 @@ public class EcoSparkApp extends JFrame {
     private void showResults() {
         StringBuilder results = new StringBuilder();
         results.append("Quiz Over! Your Score: ").append(backend.getScore()).append(" / ").append(backend.getTotalQuestions()).append("\n\n");
+        if (isUserLoggedIn()) {
+            QuizHistory history = currentUser.getQuizHistory();
+            backend.recordTo(history, System.currentTimeMillis());
+            if (backend.isAdaptive()) {
+                currentUser.setQuizRating(backend.getPlayerRating());
+            }
+            results.append("Quizzes finished: ").append(history.getAttemptCount()).append("\n");
+            results.append(String.format("Average of your last %d quizzes: %.0f%%",
+                    Math.min(history.getAttemptCount(), 5), history.getRecentAverage(5) * 100));
+            if (quizBadgeEngine == null) {
+                quizBadgeEngine = DashboardPanel.createBadgeEngine();
+            }
+            List<String> newBadges = quizBadgeEngine.onQuizCompleted(currentUser);
+            if (!newBadges.isEmpty()) {
+                results.append("\n\nYou've also earned new badges:");
+                for (String badgeName : newBadges) {
+                    results.append("\n- ").append(badgeName).append(" ").append(getBadgeIcon(badgeName));
+                }
+            }
+            userManager.updateProfile(currentUser); // saves the history, the review schedule, the rating and any badges
+        }
         JOptionPane.showMessageDialog(quizPanel, results.toString());
     }
 
@@ -472,7 +551,7 @@ public class EcoSparkApp extends JFrame {
         @Override
         public void actionPerformed(ActionEvent e) {
             JButton clickedButton = (JButton) e.getSource();
-            boolean isCorrect = backend.checkAnswer(clickedButton.getName());
+            boolean isCorrect = backend.checkAnswer(Integer.parseInt(clickedButton.getName()));
 
             if (isCorrect) {
                 clickedButton.setBackground(Color.GREEN);
@@ -595,9 +674,10 @@ public class EcoSparkApp extends JFrame {
                     return false;
                 }
 
-                // For numeric fields, check if the value is negative
+                // For numeric fields, check if the value is negative; the calculator's own
+                // inputs are parsed and checked once by FootprintInput instead
                 String fieldName = entry.getKey();
-                if (isNumericField(fieldName)) {
+                if (isNumericField(fieldName) && !FootprintInput.isInputField(fieldName)) {
                     try {
                         double value = Double.parseDouble(text);
                         if (value < 0) {
@@ -732,49 +812,65 @@ public class EcoSparkApp extends JFrame {
         return resultsPanel;
     }
 
+    /**
+     * Runs the uncertainty analysis off the Event Dispatch Thread and adds the likely range
+     * to the total label once it is done. A newer calculation replaces any older one still running.
+     * @param input, the parsed answers
+     * @param totalLabel, label showing the total
+     * @param totalText, text of the total without the range
+     */
+    private void estimateRange(FootprintInput input, JLabel totalLabel, String totalText) {
+        if (uncertaintyWorker != null) {
+            uncertaintyWorker.cancel(false);
+        }
+        uncertaintyWorker = new SwingWorker<FootprintUncertaintyAnalysis.Result, Void>() {
+            @Override
+            protected FootprintUncertaintyAnalysis.Result doInBackground() {
+                return uncertaintyAnalysis.analyze(input, UNCERTAINTY_DRAWS, UNCERTAINTY_INPUT_SPREAD, 0);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || uncertaintyWorker != this) {
+                    return;
+                }
+                uncertaintyWorker = null;
+                try {
+                    FootprintUncertaintyAnalysis.Result uncertainty = get();
+                    totalLabel.setText(totalText
+                            + String.format(" (likely %.2f to %.2f)", uncertainty.getP5(), uncertainty.getP95()));
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        uncertaintyWorker.execute();
+    }
+
     /**
      * Calculates and displays the carbon footprint results.
      * @param resultsPanel The panel to display the results.
      */
     private void calculateAndDisplayResults(JPanel resultsPanel) {
-        Map<String, Object> inputValues = collectInputValues();
-
-        double totalFootprint = calculator.calculateTotalFootprint(
-                (String) inputValues.get("country"),
-                Integer.parseInt((String) inputValues.get("carMilesPerWeek")),
-                (String) inputValues.get("vehicleType"),
-                (String) inputValues.get("fuelType"),
-                Integer.parseInt((String) inputValues.get("flightsPerYear")),
-                (String) inputValues.get("dietType"),
-                Integer.parseInt((String) inputValues.get("meatConsumption")),
-                Double.parseDouble((String) inputValues.get("electricityUsage")),
-                (String) inputValues.get("energySource"),
-                Double.parseDouble((String) inputValues.get("wasteProduced"))
-        );
-
-        Map<String, Double> footprintData = new HashMap<>();
-        footprintData.put("General Usage", calculator.calculateGeneralFootprint((String) inputValues.get("country")));
-        footprintData.put("Transportation", calculator.calculateTransportationFootprint(
-                Integer.parseInt((String) inputValues.get("carMilesPerWeek")),
-                (String) inputValues.get("vehicleType"),
-                (String) inputValues.get("fuelType"),
-                Integer.parseInt((String) inputValues.get("flightsPerYear"))
-        ));
-        footprintData.put("Food Consumption", calculator.calculateFoodFootprint(
-                (String) inputValues.get("dietType"),
-                Integer.parseInt((String) inputValues.get("meatConsumption"))
-        ));
-        footprintData.put("Energy Usage", calculator.calculateEnergyFootprint(
-                Double.parseDouble((String) inputValues.get("electricityUsage")),
-                (String) inputValues.get("energySource")
-        ));
-        footprintData.put("Waste Production", calculator.calculateWasteFootprint(
-                Double.parseDouble((String) inputValues.get("wasteProduced"))
-        ));
+        FootprintInput input;
+        try {
+            input = FootprintInput.parse(collectInputValues(), calculator.getFactors());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this,
+                    e.getMessage(),
+                    "Invalid Input",
+                    JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        FootprintBreakdown breakdown = footprintCache != null ? footprintCache.calculate(input) : calculator.calculate(input);
+        double totalFootprint = breakdown.getTotal();
+        Map<String, Double> footprintData = breakdown.toCategoryMap();
 
         for (Component comp : resultsPanel.getComponents()) {
             if (comp instanceof JLabel && "totalFootprintLabel".equals(comp.getName())) {
-                ((JLabel) comp).setText("Total Carbon Footprint: " + String.format("%.2f", totalFootprint) + " tons CO2e");
+                String totalText = "Total Carbon Footprint: " + String.format("%.2f", totalFootprint) + " tons CO2e";
+                ((JLabel) comp).setText(totalText);
+                estimateRange(input, (JLabel) comp, totalText);
                 break;
             }
         }
@@ -1753,6 +1849,7 @@ public class EcoSparkApp extends JFrame {
                 "/com/hillcrest/visuals/informative_resources_button_graphic.png",
                 "Test your knowledge",
                 e -> {
+                    backend = createQuizBackend();
                     quizPanel = createQuizPanel();
                     quizFrame = new JFrame("EcoSpark Quiz");
                     quizFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -0,0 +1,359 @@
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Immutable table of the emission factors used by {@link CarbonFootprintCalculator},
+ * loaded from footprint/emission_factors.json so factors can be updated without a
+ * code change. Set -Decospark.emissionFactors=path to load another file.
+ *
+ * Every option list (countries, vehicles, fuels, diets, energy sources) gets dense
+ * ordinals, with one extra ordinal at the end for options the file does not list.
+ * Callers resolve an option name to its ordinal once; a calculation is then a few
+ * array reads. Unit conversions are folded into the tables when they are built.
+ *
+ * Each section may give an "uncertainty", the relative spread of its factors, for
+ * {@link FootprintUncertaintyAnalysis}; a section without one is treated as exact.
+ */
+final class EmissionFactors {
+    static final int FORMAT = 1;
+    static final String[] SECTIONS = {"general", "car", "flight", "food", "energy", "waste"};
+    private static final String RESOURCE = "/footprint/emission_factors.json";
+
+    private final int version;
+    private final Options countries;
+    private final Options vehicles;
+    private final Options fuels;
+    private final Options diets;
+    private final Options energySources;
+
+    private final double generalWeight;
+    private final double[] countryFootprint;
+    private final double[] carPerWeeklyMile; // [vehicle * fuels + fuel], tonnes per yearly total of weekly miles
+    private final double perFlight;
+    private final double[] dietFootprint; // [diet * meatBrackets + bracket]
+    private final byte[] meatBracket; // bracket by meat servings per week, the last one covers anything above
+    private final int meatBrackets;
+    private final double[] energyPerMonthlyUnit;
+    private final double wastePerWeeklyUnit;
+    private final Map<String, Double> uncertainty = new HashMap<>();
+
+    private static class Holder {
+        static final EmissionFactors SHARED = loadShared();
+    }
+
+    /**
+     * The names of one option list and their ordinals.
+     */
+    static final class Options {
+        private final String[] names;
+        private final Map<String, Integer> ordinals = new HashMap<>();
+
+        private Options(Collection<String> names) {
+            this.names = names.toArray(new String[0]);
+            Arrays.sort(this.names);
+            for (int i = 0; i < this.names.length; i++) {
+                ordinals.put(this.names[i], i);
+            }
+        }
+
+        /**
+         * Resolves an option name.
+         * @param name, option name as shown in the calculator
+         * @return its ordinal, or {@link #getDefaultOrdinal()} for an unknown name
+         */
+        public int ordinal(String name) {
+            Integer ordinal = name == null ? null : ordinals.get(name);
+            return ordinal != null ? ordinal : names.length;
+        }
+
+        /**
+         * Getter, gets the ordinal used for names the file does not list
+         * @return default ordinal
+         */
+        public int getDefaultOrdinal() {
+            return names.length;
+        }
+
+        /**
+         * Getter, gets the number of ordinals, including the default one
+         * @return ordinal count
+         */
+        public int size() {
+            return names.length + 1;
+        }
+
+        /**
+         * Gets the name of an ordinal.
+         * @param ordinal, option ordinal
+         * @return the name, or null for the default ordinal
+         */
+        public String name(int ordinal) {
+            return ordinal < names.length ? names[ordinal] : null;
+        }
+    }
+
+    private EmissionFactors(JSONObject json) {
+        int format = json.getInt("format");
+        if (format != FORMAT) {
+            throw new IllegalArgumentException("Unsupported emission factor format " + format);
+        }
+        version = json.getInt("version");
+
+        JSONObject general = json.getJSONObject("general");
+        generalWeight = general.getDouble("weight");
+        JSONObject countryFactors = general.getJSONObject("countries");
+        countries = new Options(countryFactors.keySet());
+        countryFootprint = table(countries, countryFactors, general.getDouble("default"), 1);
+
+        JSONObject car = json.getJSONObject("car");
+        double carScale = car.getDouble("weeksPerYear") / car.getDouble("kgPerTonne");
+        JSONObject vehicleFactors = car.getJSONObject("vehicles");
+        vehicles = new Options(vehicleFactors.keySet());
+        double[] vehicleFactor = table(vehicles, vehicleFactors, car.getDouble("defaultVehicle"), 1);
+        JSONObject fuelFactors = car.getJSONObject("fuels");
+        fuels = new Options(fuelFactors.keySet());
+        carPerWeeklyMile = new double[vehicles.size() * fuels.size()];
+        for (int v = 0; v < vehicles.size(); v++) {
+            for (int f = 0; f < fuels.size(); f++) {
+                double factor = vehicleFactor[v];
+                JSONObject fuel = f < fuels.getDefaultOrdinal() ? fuelFactors.getJSONObject(fuels.name(f)) : null;
+                // A vehicle with no emissions means no car, whatever the fuel
+                if (fuel != null && factor > 0) {
+                    factor = fuel.has("factor") ? fuel.getDouble("factor") : factor * fuel.optDouble("multiplier", 1);
+                }
+                carPerWeeklyMile[v * fuels.size() + f] = factor * carScale;
+            }
+        }
+
+        perFlight = json.getJSONObject("flight").getDouble("perFlight");
+
+        JSONObject food = json.getJSONObject("food");
+        JSONArray brackets = food.getJSONArray("meatBrackets");
+        meatBrackets = brackets.length();
+        double[] bracketMultiplier = new double[meatBrackets];
+        int lastUpTo = -1;
+        for (int b = 0; b < meatBrackets; b++) {
+            bracketMultiplier[b] = brackets.getJSONObject(b).getDouble("multiplier");
+            if (b < meatBrackets - 1) {
+                lastUpTo = brackets.getJSONObject(b).getInt("upTo");
+            }
+        }
+        meatBracket = new byte[lastUpTo + 2];
+        for (int servings = 0, b = 0; servings < meatBracket.length; servings++) {
+            while (b < meatBrackets - 1 && servings > brackets.getJSONObject(b).getInt("upTo")) {
+                b++;
+            }
+            meatBracket[servings] = (byte) b;
+        }
+        JSONObject dietFactors = food.getJSONObject("diets");
+        diets = new Options(dietFactors.keySet());
+        dietFootprint = new double[diets.size() * meatBrackets];
+        for (int d = 0; d < diets.size(); d++) {
+            JSONObject diet = d < diets.getDefaultOrdinal()
+                    ? dietFactors.getJSONObject(diets.name(d)) : food.getJSONObject("default");
+            for (int b = 0; b < meatBrackets; b++) {
+                dietFootprint[d * meatBrackets + b] = diet.getDouble("base")
+                        * (diet.getBoolean("meatAdjusted") ? bracketMultiplier[b] : 1);
+            }
+        }
+
+        JSONObject energy = json.getJSONObject("energy");
+        JSONObject sourceFactors = energy.getJSONObject("sources");
+        energySources = new Options(sourceFactors.keySet());
+        energyPerMonthlyUnit = table(energySources, sourceFactors, energy.getDouble("default"),
+                energy.getDouble("monthsPerYear") / energy.getDouble("kgPerTonne"));
+
+        JSONObject waste = json.getJSONObject("waste");
+        wastePerWeeklyUnit = waste.getDouble("factor") * waste.getDouble("weeksPerYear") / waste.getDouble("kgPerTonne");
+
+        for (String section : SECTIONS) {
+            double spread = json.getJSONObject(section).optDouble("uncertainty", 0);
+            if (!(spread >= 0)) {
+                throw new IllegalArgumentException("Invalid uncertainty for " + section + ": " + spread);
+            }
+            uncertainty.put(section, spread);
+        }
+    }
+
+    private static double[] table(Options options, JSONObject factors, double defaultFactor, double scale) {
+        double[] table = new double[options.size()];
+        for (int i = 0; i < options.getDefaultOrdinal(); i++) {
+            table[i] = factors.getDouble(options.name(i)) * scale;
+        }
+        table[options.getDefaultOrdinal()] = defaultFactor * scale;
+        return table;
+    }
+
+    /**
+     * Loads emission factors from a JSON data file.
+     * @param in, the data file
+     * @return the factors
+     */
+    public static EmissionFactors load(InputStream in) throws IOException {
+        try {
+            return new EmissionFactors(new JSONObject(new JSONTokener(
+                    new InputStreamReader(in, StandardCharsets.UTF_8))));
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new IOException("Invalid emission factor file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the factors shared by every calculator, loading them on first use.
+     * @return the shared factors
+     */
+    public static EmissionFactors shared() {
+        return Holder.SHARED;
+    }
+
+    private static EmissionFactors loadShared() {
+        String path = System.getProperty("ecospark.emissionFactors");
+        try (InputStream in = path != null ? new FileInputStream(path)
+                : EmissionFactors.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("No emission factors found at " + RESOURCE);
+            }
+            return load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not load emission factors", e);
+        }
+    }
+
+    /**
+     * Getter, gets the version of the factor data, which changes whenever a factor does
+     * @return version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Getter, gets the countries and their ordinals
+     * @return options
+     */
+    public Options getCountries() {
+        return countries;
+    }
+
+    /**
+     * Getter, gets the vehicle types and their ordinals
+     * @return options
+     */
+    public Options getVehicles() {
+        return vehicles;
+    }
+
+    /**
+     * Getter, gets the fuel types and their ordinals
+     * @return options
+     */
+    public Options getFuels() {
+        return fuels;
+    }
+
+    /**
+     * Getter, gets the diets and their ordinals
+     * @return options
+     */
+    public Options getDiets() {
+        return diets;
+    }
+
+    /**
+     * Getter, gets the energy sources and their ordinals
+     * @return options
+     */
+    public Options getEnergySources() {
+        return energySources;
+    }
+
+    /**
+     * Getter, gets the share of the national average counted toward a person's total
+     * @return weight
+     */
+    public double getGeneralWeight() {
+        return generalWeight;
+    }
+
+    /**
+     * Gets the average footprint of a person living in a country.
+     * @param country, country ordinal
+     * @return tonnes per year
+     */
+    public double countryFootprint(int country) {
+        return countryFootprint[country];
+    }
+
+    /**
+     * Gets the yearly car footprint per mile driven each week.
+     * @param vehicle, vehicle ordinal
+     * @param fuel, fuel ordinal
+     * @return tonnes per year per weekly mile
+     */
+    public double carFactor(int vehicle, int fuel) {
+        return carPerWeeklyMile[vehicle * fuels.size() + fuel];
+    }
+
+    /**
+     * Getter, gets the footprint of one flight
+     * @return tonnes per flight
+     */
+    public double getPerFlight() {
+        return perFlight;
+    }
+
+    /**
+     * Gets the yearly food footprint of a diet.
+     * @param diet, diet ordinal
+     * @param meatServingsPerWeek, servings of meat per week
+     * @return tonnes per year
+     */
+    public double dietFootprint(int diet, int meatServingsPerWeek) {
+        return dietFootprint[diet * meatBrackets + meatBracket(meatServingsPerWeek)];
+    }
+
+    /**
+     * Gets the bracket a meat consumption falls in; every amount in a bracket has the same footprint.
+     * @param meatServingsPerWeek, servings of meat per week
+     * @return bracket index
+     */
+    public int meatBracket(int meatServingsPerWeek) {
+        return meatBracket[Math.min(Math.max(meatServingsPerWeek, 0), meatBracket.length - 1)];
+    }
+
+    /**
+     * Gets the yearly footprint per unit of electricity used each month.
+     * @param source, energy source ordinal
+     * @return tonnes per year per monthly unit
+     */
+    public double energyFactor(int source) {
+        return energyPerMonthlyUnit[source];
+    }
+
+    /**
+     * Getter, gets the yearly footprint per unit of waste produced each week
+     * @return tonnes per year per weekly unit
+     */
+    public double getWasteFactor() {
+        return wastePerWeeklyUnit;
+    }
+
+    /**
+     * Gets how uncertain the factors of a section are.
+     * @param section, one of {@link #SECTIONS}
+     * @return geometric standard deviation as a fraction, 0 if the section is exact
+     */
+    public double getUncertainty(String section) {
+        Double spread = uncertainty.get(section);
+        if (spread == null) {
+            throw new IllegalArgumentException("Unknown section " + section);
+        }
+        return spread;
+    }
+}
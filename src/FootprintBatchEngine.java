@@ -0,0 +1,338 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes carbon footprints for bulk survey exports.
+ *
+ * Rows are held in {@link FootprintColumns}; one pass over a row range fills in all
+ * five category footprints and the total, and ranges are split across cores with
+ * fork/join. CSV exports are streamed through a fixed set of columns one chunk at a
+ * time, so memory use does not grow with the file.
+ *
+ * Usage: java FootprintBatchEngine survey.csv results.csv
+ */
+class FootprintBatchEngine {
+    static final String[] CSV_COLUMNS = FootprintInput.FIELDS;
+    private static final int SPLIT_THRESHOLD = 16 * 1024;
+    private static final int DEFAULT_CHUNK_ROWS = 256 * 1024;
+
+    private final CarbonFootprintCalculator calculator;
+    private final ForkJoinPool pool;
+
+    /**
+     * Receives each computed chunk of a streamed CSV file.
+     */
+    interface ChunkSink {
+        void accept(FootprintColumns chunk) throws IOException;
+    }
+
+    /**
+     * Constructor, creates an engine using the shared emission factors and the common pool
+     */
+    public FootprintBatchEngine() {
+        this(new CarbonFootprintCalculator(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor, creates an engine
+     * @param calculator, calculator whose factors are used
+     * @param pool, pool the rows are computed on
+     */
+    public FootprintBatchEngine(CarbonFootprintCalculator calculator, ForkJoinPool pool) {
+        this.calculator = calculator;
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the footprints of every row in the columns.
+     * @param columns, rows to compute, updated in place
+     */
+    public void compute(FootprintColumns columns) {
+        if (columns.size() <= SPLIT_THRESHOLD) {
+            computeRange(columns, 0, columns.size());
+        } else {
+            pool.invoke(new RangeTask(columns, 0, columns.size()));
+        }
+    }
+
+    private class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final FootprintColumns columns;
+        private final int from;
+        private final int to;
+
+        RangeTask(FootprintColumns columns, int from, int to) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                computeRange(columns, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(columns, from, middle), new RangeTask(columns, middle, to));
+            }
+        }
+    }
+
+    private void computeRange(FootprintColumns c, int from, int to) {
+        for (int row = from; row < to; row++) {
+            double general = calculator.calculateGeneralFootprint(c.country[row]);
+            double transportation = calculator.calculateTransportationFootprint(
+                    c.carMilesPerWeek[row], c.vehicle[row], c.fuel[row], c.flightsPerYear[row]);
+            double food = calculator.calculateFoodFootprint(c.diet[row], c.meatConsumption[row]);
+            double energy = calculator.calculateEnergyFootprint(c.electricityUsage[row], c.energySource[row]);
+            double waste = calculator.calculateWasteFootprint(c.wasteProduced[row]);
+            c.general[row] = general;
+            c.transportation[row] = transportation;
+            c.food[row] = food;
+            c.energy[row] = energy;
+            c.waste[row] = waste;
+            c.total[row] = calculator.total(general, transportation, food, energy, waste);
+        }
+    }
+
+    /**
+     * Streams a CSV export through the engine. The first line must be a header naming
+     * the {@link #CSV_COLUMNS} in any order; other columns are ignored.
+     * Each chunk of lines is parsed in parallel before it is computed.
+     * @param in, CSV source
+     * @param chunkRows, rows computed at a time, which bounds memory use
+     * @param sink, receives each computed chunk; the chunk is reused after it returns
+     * @return number of rows computed
+     */
+    public long streamCsv(Reader in, int chunkRows, ChunkSink sink) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        String header = reader.readLine();
+        if (header == null) {
+            return 0;
+        }
+        int[] fieldOf = mapColumns(splitCsv(header, new String[countFields(header)]));
+        String[] lines = new String[chunkRows];
+        long[] lineNumbers = new long[chunkRows];
+        FootprintColumns chunk = new FootprintColumns(chunkRows);
+        long rows = 0;
+        long lineNumber = 1;
+
+        while (true) {
+            int count = 0;
+            String line;
+            while (count < chunkRows && (line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isEmpty()) {
+                    lineNumbers[count] = lineNumber;
+                    lines[count++] = line;
+                }
+            }
+            if (count == 0) {
+                return rows;
+            }
+            try {
+                if (count <= SPLIT_THRESHOLD) {
+                    parseRange(lines, lineNumbers, fieldOf, chunk, 0, count);
+                } else {
+                    pool.invoke(new ParseTask(lines, lineNumbers, fieldOf, chunk, 0, count));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            chunk.size = count;
+            compute(chunk);
+            sink.accept(chunk);
+            rows += count;
+            chunk.clear();
+        }
+    }
+
+    private class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final String[] lines;
+        private final long[] lineNumbers;
+        private final int[] fieldOf;
+        private final FootprintColumns chunk;
+        private final int from;
+        private final int to;
+
+        ParseTask(String[] lines, long[] lineNumbers, int[] fieldOf, FootprintColumns chunk, int from, int to) {
+            this.lines = lines;
+            this.lineNumbers = lineNumbers;
+            this.fieldOf = fieldOf;
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                parseRange(lines, lineNumbers, fieldOf, chunk, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(lines, lineNumbers, fieldOf, chunk, from, middle),
+                        new ParseTask(lines, lineNumbers, fieldOf, chunk, middle, to));
+            }
+        }
+    }
+
+    private void parseRange(String[] lines, long[] lineNumbers, int[] fieldOf, FootprintColumns chunk, int from, int to) {
+        EmissionFactors factors = calculator.getFactors();
+        int width = 0;
+        for (int field : fieldOf) {
+            width = Math.max(width, field + 1);
+        }
+        String[] fields = new String[width];
+        for (int row = from; row < to; row++) {
+            String line = lines[row];
+            int count = countFields(line);
+            if (count < width) {
+                // A short row would otherwise read another row's values or run off the array
+                throw new UncheckedIOException(new IOException("Bad survey row on line " + lineNumbers[row]
+                        + ": has " + count + " fields, the header needs " + width + ": " + line));
+            }
+            if (fields.length < count) {
+                fields = new String[count];
+            }
+            splitCsv(line, fields);
+            try {
+                chunk.set(row, option(factors.getCountries(), fields, fieldOf, 0),
+                        Integer.parseInt(fields[fieldOf[1]].trim()),
+                        option(factors.getVehicles(), fields, fieldOf, 2),
+                        option(factors.getFuels(), fields, fieldOf, 3),
+                        Integer.parseInt(fields[fieldOf[4]].trim()),
+                        option(factors.getDiets(), fields, fieldOf, 5),
+                        Integer.parseInt(fields[fieldOf[6]].trim()),
+                        Double.parseDouble(fields[fieldOf[7]]),
+                        option(factors.getEnergySources(), fields, fieldOf, 8),
+                        Double.parseDouble(fields[fieldOf[9]]));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new UncheckedIOException(new IOException(
+                        "Bad survey row on line " + lineNumbers[row] + " (" + e.getMessage() + "): " + line, e));
+            }
+            lines[row] = null;
+        }
+    }
+
+    /**
+     * Resolves a categorical field, trimmed like {@link FootprintInput} does. Unlike the
+     * calculator's drop-downs a survey can hold any text, so a name the factor file does
+     * not list is an error rather than the default ordinal.
+     */
+    private static int option(EmissionFactors.Options options, String[] fields, int[] fieldOf, int column) {
+        String name = fields[fieldOf[column]].trim();
+        int ordinal = options.ordinal(name);
+        if (ordinal == options.getDefaultOrdinal()) {
+            throw new IllegalArgumentException("unknown " + CSV_COLUMNS[column] + " \"" + name + "\"");
+        }
+        return ordinal;
+    }
+
+    private static int[] mapColumns(String[] header) throws IOException {
+        int[] fieldOf = new int[CSV_COLUMNS.length];
+        for (int c = 0; c < CSV_COLUMNS.length; c++) {
+            fieldOf[c] = -1;
+            for (int f = 0; f < header.length; f++) {
+                if (CSV_COLUMNS[c].equals(header[f].trim())) {
+                    fieldOf[c] = f;
+                }
+            }
+            if (fieldOf[c] < 0) {
+                throw new IOException("Survey CSV is missing the " + CSV_COLUMNS[c] + " column");
+            }
+        }
+        return fieldOf;
+    }
+
+    private static int countFields(String line) {
+        int count = 1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '"') {
+                quoted = !quoted;
+            } else if (ch == ',' && !quoted) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Splits one CSV line into the given array. Quoted fields may contain commas and "" escapes.
+     */
+    private static String[] splitCsv(String line, String[] fields) {
+        int field = 0;
+        int start = 0;
+        int length = line.length();
+        while (start <= length) {
+            if (start < length && line.charAt(start) == '"') {
+                StringBuilder value = new StringBuilder();
+                int i = start + 1;
+                while (i < length) {
+                    char ch = line.charAt(i);
+                    if (ch == '"') {
+                        if (i + 1 < length && line.charAt(i + 1) == '"') {
+                            value.append('"');
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    value.append(ch);
+                    i++;
+                }
+                fields[field++] = value.toString();
+                int comma = line.indexOf(',', i);
+                start = comma < 0 ? length + 1 : comma + 1;
+            } else {
+                int comma = line.indexOf(',', start);
+                int end = comma < 0 ? length : comma;
+                fields[field++] = line.substring(start, end);
+                start = end + 1;
+            }
+        }
+        for (int i = field; i < fields.length; i++) {
+            fields[i] = null;
+        }
+        return fields;
+    }
+
+    /**
+     * Computes every row of a survey CSV and writes the footprints as CSV.
+     * @param args, input and output paths
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java FootprintBatchEngine <survey.csv> <results.csv>");
+            System.exit(2);
+        }
+        FootprintBatchEngine engine = new FootprintBatchEngine();
+        long start = System.nanoTime();
+        long rows;
+        try (Reader in = new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(args[1]), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("general,transportation,food,energy,waste,total\n");
+            rows = engine.streamCsv(in, DEFAULT_CHUNK_ROWS, chunk -> {
+                StringBuilder line = new StringBuilder(96);
+                for (int row = 0; row < chunk.size(); row++) {
+                    line.setLength(0);
+                    line.append(chunk.general[row]).append(',')
+                            .append(chunk.transportation[row]).append(',')
+                            .append(chunk.food[row]).append(',')
+                            .append(chunk.energy[row]).append(',')
+                            .append(chunk.waste[row]).append(',')
+                            .append(chunk.total[row]).append('\n');
+                    out.append(line);
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format(Locale.ROOT, "Computed %d rows in %.2f s", rows, seconds));
+    }
+}
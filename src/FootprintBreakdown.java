@@ -0,0 +1,72 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of one footprint calculation: each category's footprint and the total,
+ * in tonnes of CO2e per year.
+ */
+final class FootprintBreakdown {
+    private final double general;
+    private final double transportation;
+    private final double food;
+    private final double energy;
+    private final double waste;
+    private final double total;
+
+    /**
+     * Constructor, creates a breakdown
+     * @param general, average footprint of the user's country, before it is weighted into the total
+     * @param transportation, car and flight footprint
+     * @param food, food footprint
+     * @param energy, electricity footprint
+     * @param waste, waste footprint
+     * @param total, the total footprint
+     */
+    FootprintBreakdown(double general, double transportation, double food, double energy, double waste, double total) {
+        this.general = general;
+        this.transportation = transportation;
+        this.food = food;
+        this.energy = energy;
+        this.waste = waste;
+        this.total = total;
+    }
+
+    public double getGeneral() {
+        return general;
+    }
+
+    public double getTransportation() {
+        return transportation;
+    }
+
+    public double getFood() {
+        return food;
+    }
+
+    public double getEnergy() {
+        return energy;
+    }
+
+    public double getWaste() {
+        return waste;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the category footprints labelled as the calculator shows them, in display order.
+     * @return category label to footprint
+     */
+    public Map<String, Double> toCategoryMap() {
+        Map<String, Double> categories = new LinkedHashMap<>();
+        categories.put("General Usage", general);
+        categories.put("Transportation", transportation);
+        categories.put("Food Consumption", food);
+        categories.put("Energy Usage", energy);
+        categories.put("Waste Production", waste);
+        return Collections.unmodifiableMap(categories);
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache of footprint breakdowns, for callers that see the
+ * same answers over and over.
+ *
+ * Inputs are normalized before they are looked up: meat consumption becomes its
+ * bracket, since every amount in a bracket has the same footprint, and the answers
+ * are packed into a key of four longs. Breakdowns and ordinals depend on the emission
+ * factors. The shared factors are loaded once per process, so in the app the cache
+ * only ever sees one set; if a caller hands it an input resolved against another
+ * {@link EmissionFactors} instance, it empties itself rather than mix the two.
+ */
+final class FootprintCache {
+    private final int maxEntries;
+    private final LinkedHashMap<Key, FootprintBreakdown> entries;
+
+    private EmissionFactors factors;
+    private CarbonFootprintCalculator calculator;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Answers packed into primitives: the option ordinals and meat bracket, the two
+     * whole-number answers, and the bits of the two decimal ones.
+     */
+    private static final class Key {
+        private final long options;
+        private final long counts;
+        private final long electricity;
+        private final long waste;
+
+        private Key(long options, long counts, long electricity, long waste) {
+            this.options = options;
+            this.counts = counts;
+            this.electricity = electricity;
+            this.waste = waste;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return options == other.options && counts == other.counts
+                    && electricity == other.electricity && waste == other.waste;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = options * 0x9E3779B97F4A7C15L;
+            h = (h ^ counts) * 0x9E3779B97F4A7C15L;
+            h = (h ^ electricity) * 0x9E3779B97F4A7C15L;
+            h = (h ^ waste) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Constructor, creates an empty cache
+     * @param maxEntries, number of breakdowns kept before the least recently used is evicted
+     */
+    public FootprintCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one entry");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<Key, FootprintBreakdown>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, FootprintBreakdown> eldest) {
+                if (size() > FootprintCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the breakdown of an input, calculating it only if the same normalized answers
+     * have not been seen since they were last evicted.
+     * @param input, the user's answers
+     * @return the breakdown
+     */
+    public synchronized FootprintBreakdown calculate(FootprintInput input) {
+        EmissionFactors inputFactors = input.getFactors();
+        if (inputFactors != factors) {
+            // Ordinals come from each file's sorted option names, so even factors of the
+            // same version may give the same key another meaning
+            if (factors != null) {
+                entries.clear();
+                invalidations++;
+            }
+            checkPackable(inputFactors);
+            factors = inputFactors;
+            calculator = new CarbonFootprintCalculator(inputFactors);
+        }
+
+        Key key = key(input);
+        FootprintBreakdown breakdown = entries.get(key);
+        if (breakdown != null) {
+            hits++;
+            return breakdown;
+        }
+        misses++;
+        breakdown = calculator.calculate(input);
+        entries.put(key, breakdown);
+        return breakdown;
+    }
+
+    private static void checkPackable(EmissionFactors factors) {
+        if (factors.getCountries().size() > 1 << 24 || factors.getVehicles().size() > 256
+                || factors.getFuels().size() > 256 || factors.getDiets().size() > 256
+                || factors.getEnergySources().size() > 256) {
+            throw new IllegalArgumentException("Too many options to pack into a cache key");
+        }
+    }
+
+    private Key key(FootprintInput input) {
+        long options = (long) input.getCountry() << 40
+                | (long) (input.getVehicle() & 0xFF) << 32
+                | (long) (input.getFuel() & 0xFF) << 24
+                | (long) (input.getDiet() & 0xFF) << 16
+                | (long) (input.getEnergySource() & 0xFF) << 8
+                | (long) (factors.meatBracket(input.getMeatConsumption()) & 0xFF);
+        long counts = (long) input.getCarMilesPerWeek() << 32 | (input.getFlightsPerYear() & 0xFFFFFFFFL);
+        // + 0.0 turns -0.0 into 0.0 so both share an entry
+        return new Key(options, counts,
+                Double.doubleToLongBits(input.getElectricityUsage() + 0.0),
+                Double.doubleToLongBits(input.getWasteProduced() + 0.0));
+    }
+
+    /**
+     * Removes every cached breakdown.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Getter, gets the number of cached breakdowns
+     * @return size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Getter, gets the number of lookups answered from the cache
+     * @return hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Getter, gets the number of lookups that had to calculate
+     * @return misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Getter, gets the share of lookups answered from the cache
+     * @return hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Getter, gets the number of breakdowns evicted to stay within the size bound
+     * @return evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Getter, gets the number of times the cache was emptied for an input with other factors
+     * @return invalidations
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+}
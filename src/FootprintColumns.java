@@ -0,0 +1,112 @@
+/**
+ * Survey rows for {@link FootprintBatchEngine} stored column by column in primitive
+ * arrays, with every categorical answer already resolved to its
+ * {@link EmissionFactors} ordinal.
+ *
+ * Inputs are the ten calculator answers; the outputs are the five category
+ * footprints and the total, filled in by the engine.
+ */
+final class FootprintColumns {
+    final int capacity;
+    int size;
+
+    final int[] country;
+    final int[] carMilesPerWeek;
+    final int[] vehicle;
+    final int[] fuel;
+    final int[] flightsPerYear;
+    final int[] diet;
+    final int[] meatConsumption;
+    final double[] electricityUsage;
+    final int[] energySource;
+    final double[] wasteProduced;
+
+    final double[] general;
+    final double[] transportation;
+    final double[] food;
+    final double[] energy;
+    final double[] waste;
+    final double[] total;
+
+    /**
+     * Constructor, creates empty columns
+     * @param capacity, most rows the columns can hold
+     */
+    FootprintColumns(int capacity) {
+        this.capacity = capacity;
+        country = new int[capacity];
+        carMilesPerWeek = new int[capacity];
+        vehicle = new int[capacity];
+        fuel = new int[capacity];
+        flightsPerYear = new int[capacity];
+        diet = new int[capacity];
+        meatConsumption = new int[capacity];
+        electricityUsage = new double[capacity];
+        energySource = new int[capacity];
+        wasteProduced = new double[capacity];
+        general = new double[capacity];
+        transportation = new double[capacity];
+        food = new double[capacity];
+        energy = new double[capacity];
+        waste = new double[capacity];
+        total = new double[capacity];
+    }
+
+    /**
+     * Getter, gets the number of rows filled in
+     * @return size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the columns so they can be refilled.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a row of already resolved answers.
+     * @return the row's index
+     */
+    int add(int country, int carMilesPerWeek, int vehicle, int fuel, int flightsPerYear, int diet,
+            int meatConsumption, double electricityUsage, int energySource, double wasteProduced) {
+        if (size == capacity) {
+            throw new IllegalStateException("Columns are full at " + capacity + " rows");
+        }
+        int row = size++;
+        set(row, country, carMilesPerWeek, vehicle, fuel, flightsPerYear, diet,
+                meatConsumption, electricityUsage, energySource, wasteProduced);
+        return row;
+    }
+
+    /**
+     * Appends a row from a parsed calculator input.
+     * @param input, the answers
+     * @return the row's index
+     */
+    int add(FootprintInput input) {
+        return add(input.getCountry(), input.getCarMilesPerWeek(), input.getVehicle(), input.getFuel(),
+                input.getFlightsPerYear(), input.getDiet(), input.getMeatConsumption(),
+                input.getElectricityUsage(), input.getEnergySource(), input.getWasteProduced());
+    }
+
+    /**
+     * Overwrites the answers of a row below the capacity, for filling rows out of order.
+     */
+    void set(int row, int country, int carMilesPerWeek, int vehicle, int fuel, int flightsPerYear, int diet,
+             int meatConsumption, double electricityUsage, int energySource, double wasteProduced) {
+        this.country[row] = country;
+        this.carMilesPerWeek[row] = carMilesPerWeek;
+        this.vehicle[row] = vehicle;
+        this.fuel[row] = fuel;
+        this.flightsPerYear[row] = flightsPerYear;
+        this.diet[row] = diet;
+        this.meatConsumption[row] = meatConsumption;
+        this.electricityUsage[row] = electricityUsage;
+        this.energySource[row] = energySource;
+        this.wasteProduced[row] = wasteProduced;
+    }
+}
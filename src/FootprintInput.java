@@ -0,0 +1,183 @@
+import java.util.Map;
+
+/**
+ * The answers to the carbon footprint calculator, parsed and validated once.
+ *
+ * Categorical answers are held as ordinals of the {@link EmissionFactors} they were
+ * resolved against, so computing a footprint from an input never looks at a string.
+ */
+final class FootprintInput {
+    static final String[] FIELDS = {"country", "carMilesPerWeek", "vehicleType", "fuelType", "flightsPerYear",
+            "dietType", "meatConsumption", "electricityUsage", "energySource", "wasteProduced"};
+
+    private final EmissionFactors factors;
+    private final int country;
+    private final int carMilesPerWeek;
+    private final int vehicle;
+    private final int fuel;
+    private final int flightsPerYear;
+    private final int diet;
+    private final int meatConsumption;
+    private final double electricityUsage;
+    private final int energySource;
+    private final double wasteProduced;
+
+    /**
+     * Constructor, creates an input from resolved answers
+     * @param factors, emission factors the ordinals belong to
+     * @param country, country ordinal
+     * @param carMilesPerWeek, miles driven in a week
+     * @param vehicle, vehicle ordinal
+     * @param fuel, fuel ordinal
+     * @param flightsPerYear, flights taken per year
+     * @param diet, diet ordinal
+     * @param meatConsumption, servings of meat per week
+     * @param electricityUsage, electricity used per month
+     * @param energySource, energy source ordinal
+     * @param wasteProduced, waste produced per week
+     */
+    FootprintInput(EmissionFactors factors, int country, int carMilesPerWeek, int vehicle, int fuel,
+                   int flightsPerYear, int diet, int meatConsumption, double electricityUsage,
+                   int energySource, double wasteProduced) {
+        this.factors = factors;
+        this.country = country;
+        this.carMilesPerWeek = carMilesPerWeek;
+        this.vehicle = vehicle;
+        this.fuel = fuel;
+        this.flightsPerYear = flightsPerYear;
+        this.diet = diet;
+        this.meatConsumption = meatConsumption;
+        this.electricityUsage = electricityUsage;
+        this.energySource = energySource;
+        this.wasteProduced = wasteProduced;
+    }
+
+    /**
+     * Creates an input from option names and numbers.
+     * @return the input, with the names resolved against the factors
+     */
+    public static FootprintInput of(EmissionFactors factors, String country, int carMilesPerWeek, String vehicleType,
+                                    String fuelType, int flightsPerYear, String dietType, int meatConsumption,
+                                    double electricityUsage, String energySource, double wasteProduced) {
+        return new FootprintInput(factors, factors.getCountries().ordinal(country), carMilesPerWeek,
+                factors.getVehicles().ordinal(vehicleType), factors.getFuels().ordinal(fuelType), flightsPerYear,
+                factors.getDiets().ordinal(dietType), meatConsumption, electricityUsage,
+                factors.getEnergySources().ordinal(energySource), wasteProduced);
+    }
+
+    /**
+     * Parses the calculator form, keyed by {@link #FIELDS}.
+     * @param values, form values as text
+     * @param factors, emission factors to resolve the options against
+     * @return the input
+     * @throws IllegalArgumentException with a message for the user if a value is missing, not a number or negative
+     */
+    public static FootprintInput parse(Map<String, ?> values, EmissionFactors factors) {
+        return of(factors,
+                text(values, "country"),
+                parseInt(values, "carMilesPerWeek"),
+                text(values, "vehicleType"),
+                text(values, "fuelType"),
+                parseInt(values, "flightsPerYear"),
+                text(values, "dietType"),
+                parseInt(values, "meatConsumption"),
+                parseDouble(values, "electricityUsage"),
+                text(values, "energySource"),
+                parseDouble(values, "wasteProduced"));
+    }
+
+    /**
+     * Checks if a form field is one of the calculator's inputs.
+     * @param fieldName, form field name
+     * @return true if {@link #parse} reads and validates it
+     */
+    public static boolean isInputField(String fieldName) {
+        for (String field : FIELDS) {
+            if (field.equals(fieldName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String text(Map<String, ?> values, String field) {
+        Object value = values.get(field);
+        if (value == null || value.toString().trim().isEmpty()) {
+            throw new IllegalArgumentException("Please fill in: " + field);
+        }
+        return value.toString().trim();
+    }
+
+    private static int parseInt(Map<String, ?> values, String field) {
+        int value;
+        try {
+            value = Integer.parseInt(text(values, field));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Please enter a whole number for: " + field);
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not allowed: " + field);
+        }
+        return value;
+    }
+
+    private static double parseDouble(Map<String, ?> values, String field) {
+        double value;
+        try {
+            value = Double.parseDouble(text(values, field));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Please enter a valid number for: " + field);
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Please enter a valid number for: " + field);
+        }
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not allowed: " + field);
+        }
+        return value;
+    }
+
+    public EmissionFactors getFactors() {
+        return factors;
+    }
+
+    public int getCountry() {
+        return country;
+    }
+
+    public int getCarMilesPerWeek() {
+        return carMilesPerWeek;
+    }
+
+    public int getVehicle() {
+        return vehicle;
+    }
+
+    public int getFuel() {
+        return fuel;
+    }
+
+    public int getFlightsPerYear() {
+        return flightsPerYear;
+    }
+
+    public int getDiet() {
+        return diet;
+    }
+
+    public int getMeatConsumption() {
+        return meatConsumption;
+    }
+
+    public double getElectricityUsage() {
+        return electricityUsage;
+    }
+
+    public int getEnergySource() {
+        return energySource;
+    }
+
+    public double getWasteProduced() {
+        return wasteProduced;
+    }
+}
@@ -0,0 +1,318 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Monte Carlo estimate of how far a footprint could be from the calculator's single
+ * number, and of which inputs the spread comes from.
+ *
+ * Every draw scales each section's factors by a lognormal multiplier with mean 1 and
+ * the spread given in the emission factor file, and scales each numeric answer by a
+ * uniform multiplier within the requested input spread. Draws run in fixed-size blocks
+ * on a fork/join pool, each block with its own {@link SplittableRandom} seeded from the
+ * analysis seed, so a seed gives the same result however the blocks are scheduled.
+ * Inside a block nothing is allocated per draw.
+ *
+ * The sensitivity of each variable is the correlation of its multiplier with the total;
+ * since the multipliers are independent, its square is roughly that variable's share
+ * of the variance.
+ */
+class FootprintUncertaintyAnalysis {
+    private static final int BLOCK_DRAWS = 4096;
+    private static final int VARIABLES = Variable.values().length;
+    // Per block: the sum of each multiplier, of its square and of it times the total, then the sums of total and total squared
+    private static final int BLOCK_STRIDE = 3 * VARIABLES + 2;
+
+    private final CarbonFootprintCalculator calculator;
+    private final ForkJoinPool pool;
+
+    /**
+     * The uncertain quantities, the factors of each section followed by the user's numeric answers.
+     */
+    enum Variable {
+        GENERAL_FACTOR("Country average"),
+        CAR_FACTOR("Car emission factor"),
+        FLIGHT_FACTOR("Flight emission factor"),
+        FOOD_FACTOR("Diet emission factor"),
+        ENERGY_FACTOR("Electricity emission factor"),
+        WASTE_FACTOR("Waste emission factor"),
+        CAR_MILES("Miles driven"),
+        FLIGHTS("Flights taken"),
+        MEAT("Meat consumption"),
+        ELECTRICITY("Electricity usage"),
+        WASTE("Waste produced");
+
+        private final String displayName;
+
+        Variable(String displayName) {
+            this.displayName = displayName;
+        }
+
+        /**
+         * Getter, gets the name shown to the user
+         * @return displayName
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * The outcome of one analysis, in tonnes of CO2e per year.
+     */
+    static final class Result {
+        private final int draws;
+        private final double mean;
+        private final double standardDeviation;
+        private final double p5;
+        private final double p95;
+        private final double[] sensitivity;
+
+        private Result(int draws, double mean, double standardDeviation, double p5, double p95, double[] sensitivity) {
+            this.draws = draws;
+            this.mean = mean;
+            this.standardDeviation = standardDeviation;
+            this.p5 = p5;
+            this.p95 = p95;
+            this.sensitivity = sensitivity;
+        }
+
+        public int getDraws() {
+            return draws;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getStandardDeviation() {
+            return standardDeviation;
+        }
+
+        /**
+         * Getter, gets the total that 5% of draws fall below
+         * @return 5th percentile
+         */
+        public double getP5() {
+            return p5;
+        }
+
+        /**
+         * Getter, gets the total that 95% of draws fall below
+         * @return 95th percentile
+         */
+        public double getP95() {
+            return p95;
+        }
+
+        /**
+         * Gets how strongly a variable moves the total.
+         * @param variable, the variable
+         * @return correlation between the variable's multiplier and the total, 0 if either did not vary
+         */
+        public double getSensitivity(Variable variable) {
+            return sensitivity[variable.ordinal()];
+        }
+    }
+
+    /**
+     * Constructor, creates an analysis using the shared emission factors and the common pool
+     */
+    public FootprintUncertaintyAnalysis() {
+        this(new CarbonFootprintCalculator(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor, creates an analysis
+     * @param calculator, calculator whose factors and uncertainties are used
+     * @param pool, pool the draws run on
+     */
+    public FootprintUncertaintyAnalysis(CarbonFootprintCalculator calculator, ForkJoinPool pool) {
+        this.calculator = calculator;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs an analysis.
+     * @param input, the user's answers
+     * @param draws, number of draws
+     * @param inputSpread, how far each numeric answer may be off, as a fraction between 0 and 1
+     * @param seed, seed of the draws
+     * @return the result
+     */
+    public Result analyze(FootprintInput input, int draws, double inputSpread, long seed) {
+        if (draws < 1) {
+            throw new IllegalArgumentException("At least one draw is needed");
+        }
+        if (!(inputSpread >= 0 && inputSpread <= 1)) {
+            throw new IllegalArgumentException("Input spread must be between 0 and 1");
+        }
+        if (input.getFactors() != calculator.getFactors()) {
+            throw new IllegalArgumentException("Input was resolved against other emission factors");
+        }
+
+        Model model = new Model(calculator, input, inputSpread);
+        int blocks = (draws + BLOCK_DRAWS - 1) / BLOCK_DRAWS;
+        long[] seeds = new long[blocks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int b = 0; b < blocks; b++) {
+            seeds[b] = root.nextLong();
+        }
+        double[] totals = new double[draws];
+        double[] sums = new double[blocks * BLOCK_STRIDE];
+        pool.invoke(new BlockTask(model, seeds, totals, sums, 0, blocks));
+
+        // Merge the blocks in order so the rounding does not depend on scheduling
+        double[] merged = new double[BLOCK_STRIDE];
+        for (int b = 0; b < blocks; b++) {
+            for (int i = 0; i < BLOCK_STRIDE; i++) {
+                merged[i] += sums[b * BLOCK_STRIDE + i];
+            }
+        }
+        double mean = merged[3 * VARIABLES] / draws;
+        double varianceY = Math.max(merged[3 * VARIABLES + 1] / draws - mean * mean, 0);
+        double[] sensitivity = new double[VARIABLES];
+        for (int v = 0; v < VARIABLES; v++) {
+            double meanX = merged[v] / draws;
+            double varianceX = Math.max(merged[VARIABLES + v] / draws - meanX * meanX, 0);
+            double covariance = merged[2 * VARIABLES + v] / draws - meanX * mean;
+            double scale = Math.sqrt(varianceX * varianceY);
+            sensitivity[v] = scale > 0 ? Math.max(-1, Math.min(1, covariance / scale)) : 0;
+        }
+
+        Arrays.sort(totals);
+        return new Result(draws, mean, Math.sqrt(varianceY),
+                percentile(totals, 0.05), percentile(totals, 0.95), sensitivity);
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+
+    /**
+     * The input and the factor spreads, worked out once per analysis. Every draw goes
+     * through the calculator's own category methods and total, so the range always
+     * matches the footprint the calculator reports.
+     */
+    private static final class Model {
+        private final CarbonFootprintCalculator calculator;
+        private final double[] sigma = new double[EmissionFactors.SECTIONS.length];
+        private final double inputSpread;
+        private final FootprintInput input;
+        private final double general;
+
+        private Model(CarbonFootprintCalculator calculator, FootprintInput input, double inputSpread) {
+            EmissionFactors factors = calculator.getFactors();
+            this.calculator = calculator;
+            this.input = input;
+            this.inputSpread = inputSpread;
+            for (int s = 0; s < sigma.length; s++) {
+                sigma[s] = Math.log1p(factors.getUncertainty(EmissionFactors.SECTIONS[s]));
+            }
+            general = calculator.calculateGeneralFootprint(input.getCountry());
+        }
+
+        /**
+         * Runs one block of draws, writing each total and the block's sums.
+         */
+        private void run(SplittableRandom random, double[] totals, int from, int to, double[] sums, int offset) {
+            double[] x = new double[VARIABLES];
+            for (int draw = from; draw < to; draw++) {
+                for (int s = 0; s < sigma.length; s++) {
+                    x[s] = lognormal(random, sigma[s]);
+                }
+                for (int v = sigma.length; v < VARIABLES; v++) {
+                    x[v] = 1 + inputSpread * (2 * random.nextDouble() - 1);
+                }
+
+                // Each category is linear in its factors, so scaling it scales its factors
+                double transportation = calculator.calculateCarFootprint(
+                        input.getCarMilesPerWeek() * x[Variable.CAR_MILES.ordinal()], input.getVehicle(), input.getFuel())
+                        * x[Variable.CAR_FACTOR.ordinal()]
+                        + calculator.calculateFlightFootprint(input.getFlightsPerYear() * x[Variable.FLIGHTS.ordinal()])
+                        * x[Variable.FLIGHT_FACTOR.ordinal()];
+                double food = calculator.calculateFoodFootprint(input.getDiet(),
+                        (int) Math.round(input.getMeatConsumption() * x[Variable.MEAT.ordinal()]))
+                        * x[Variable.FOOD_FACTOR.ordinal()];
+                double energy = calculator.calculateEnergyFootprint(
+                        input.getElectricityUsage() * x[Variable.ELECTRICITY.ordinal()], input.getEnergySource())
+                        * x[Variable.ENERGY_FACTOR.ordinal()];
+                double waste = calculator.calculateWasteFootprint(input.getWasteProduced() * x[Variable.WASTE.ordinal()])
+                        * x[Variable.WASTE_FACTOR.ordinal()];
+                double total = calculator.total(general * x[Variable.GENERAL_FACTOR.ordinal()],
+                        transportation, food, energy, waste);
+                totals[draw] = total;
+
+                for (int v = 0; v < VARIABLES; v++) {
+                    sums[offset + v] += x[v];
+                    sums[offset + VARIABLES + v] += x[v] * x[v];
+                    sums[offset + 2 * VARIABLES + v] += x[v] * total;
+                }
+                sums[offset + 3 * VARIABLES] += total;
+                sums[offset + 3 * VARIABLES + 1] += total * total;
+            }
+        }
+
+        /**
+         * Draws a lognormal multiplier with mean 1.
+         */
+        private static double lognormal(SplittableRandom random, double sigma) {
+            if (sigma == 0) {
+                return 1;
+            }
+            return Math.exp(sigma * gaussian(random) - sigma * sigma / 2);
+        }
+
+        /**
+         * Draws a standard normal value with the polar method.
+         */
+        private static double gaussian(SplittableRandom random) {
+            double u;
+            double v;
+            double s;
+            do {
+                u = 2 * random.nextDouble() - 1;
+                v = 2 * random.nextDouble() - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            return u * Math.sqrt(-2 * Math.log(s) / s);
+        }
+    }
+
+    /**
+     * Splits a range of blocks in halves until one block is left, then runs it.
+     */
+    private static final class BlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Model model;
+        private final long[] seeds;
+        private final double[] totals;
+        private final double[] sums;
+        private final int from;
+        private final int to;
+
+        private BlockTask(Model model, long[] seeds, double[] totals, double[] sums, int from, int to) {
+            this.model = model;
+            this.seeds = seeds;
+            this.totals = totals;
+            this.sums = sums;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BlockTask(model, seeds, totals, sums, from, mid),
+                        new BlockTask(model, seeds, totals, sums, mid, to));
+                return;
+            }
+            int first = from * BLOCK_DRAWS;
+            int last = Math.min(first + BLOCK_DRAWS, totals.length);
+            model.run(new SplittableRandom(seeds[from]), totals, first, last, sums, from * BLOCK_STRIDE);
+        }
+    }
+}
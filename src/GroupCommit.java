@@ -0,0 +1,88 @@
+import java.io.IOException;
+
+/**
+ * Runs an expensive commit (a snapshot write with its fsync) on behalf of many callers.
+ *
+ * A caller that arrives while a commit is already running does not start its own: it
+ * waits for that commit to finish and then shares the next one with every other caller
+ * that arrived in the meantime. N concurrent requests therefore cost at most two commits.
+ */
+class GroupCommit {
+
+    /**
+     * The work done once per group.
+     */
+    interface Commit {
+        void run() throws IOException;
+    }
+
+    private final Commit commit;
+    private long requested;
+    private long completed;
+    private boolean running;
+    private long commitCount;
+
+    /**
+     * Constructor, creates a group commit around the given work
+     * @param commit, work to run once per group
+     */
+    public GroupCommit(Commit commit) {
+        this.commit = commit;
+    }
+
+    /**
+     * Returns once a commit that started after this call has finished.
+     */
+    public void commit() throws IOException {
+        long ticket;
+        synchronized (this) {
+            ticket = ++requested;
+        }
+
+        while (true) {
+            long group;
+            synchronized (this) {
+                boolean interrupted = false;
+                while (running && completed < ticket) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (completed >= ticket) {
+                    return;
+                }
+                // This caller leads the next group, covering everyone who has asked so far
+                running = true;
+                group = requested;
+            }
+
+            boolean succeeded = false;
+            try {
+                commit.run();
+                succeeded = true;
+            } finally {
+                synchronized (this) {
+                    running = false;
+                    if (succeeded) {
+                        completed = Math.max(completed, group);
+                        commitCount++;
+                    }
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter, gets the number of commits actually run
+     * @return commit count
+     */
+    public synchronized long getCommitCount() {
+        return commitCount;
+    }
+}
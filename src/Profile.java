@@ -1,16 +1,34 @@
 import java.util.List;
 import org.json.JSONArray;
 import org.json.JSONObject;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Profile class represents the user's profile.
  * It stores the user's progress, completed tasks, badges, and points.
+ *
+ * Completed tasks are kept as a bitset indexed by catalog task id, so checking or
+ * recording a completion is O(1) and saving it is a short array of longs. Badges
+ * are kept the same way, by their {@link BadgeRegistry} id. Missed quiz questions
+ * are kept in a {@link ReviewSchedule} and finished quizzes in a {@link QuizHistory}.
+ * The user's Elo-style quiz rating carries over from one adaptive quiz to the next.
  */
 class Profile extends User {
     private int points;
-    private List<String> badges;
-    private List<Task> completedTasks;
+    private BitSet badgeIds;
+    private BitSet completedTaskIds;
+    private Map<String, Integer> categoryCounts; // built from completedTaskIds on first use
+    private ReviewSchedule reviewSchedule;
+    private QuizHistory quizHistory;
+    private double quizRating;
 
     /**
      * Constructor, constructs a user's profile
@@ -22,8 +40,11 @@ class Profile extends User {
     public Profile(String name, String email, String password) {
         super(name, email, password);
         this.points = 0;
-        this.badges = new ArrayList<>();
-        this.completedTasks = new ArrayList<>();
+        this.badgeIds = new BitSet();
+        this.completedTaskIds = new BitSet();
+        this.reviewSchedule = new ReviewSchedule();
+        this.quizHistory = new QuizHistory();
+        this.quizRating = QuestionRatings.INITIAL_RATING;
     }
 
     /**
@@ -87,6 +108,10 @@ class Profile extends User {
      * @return list of earned badges.
      */
     public List<String> getBadges() {
+        List<String> badges = new ArrayList<>(badgeIds.cardinality());
+        for (int id = badgeIds.nextSetBit(0); id >= 0; id = badgeIds.nextSetBit(id + 1)) {
+            badges.add(BadgeRegistry.nameOf(id));
+        }
         return badges;
     }
 
@@ -96,7 +121,8 @@ class Profile extends User {
      * @return true if the user has the badge, false otherwise.
      */
     public boolean hasBadge(String badgeName) {
-        return badges.contains(badgeName);
+        int id = BadgeRegistry.idOf(badgeName);
+        return id >= 0 && badgeIds.get(id);
     }
 
     /**
@@ -104,17 +130,30 @@ class Profile extends User {
      * @param badgeName name of the badge to add.
      */
     public void addBadge(String badgeName) {
-        if (!badges.contains(badgeName)) {
-            badges.add(badgeName);
-        }
+        badgeIds.set(BadgeRegistry.intern(badgeName));
     }
 
     /**
      * Gets the list of tasks the user has completed.
-     * @return list of completed tasks.
+     * @return list of completed tasks, in catalog order.
      */
     public List<Task> getCompletedTasks() {
-        return completedTasks;
+        List<Task> tasks = new ArrayList<>(completedTaskIds.cardinality());
+        for (int id = completedTaskIds.nextSetBit(0); id >= 0; id = completedTaskIds.nextSetBit(id + 1)) {
+            Task task = TaskManager.getTask(id);
+            if (task != null) {
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Gets the number of tasks the user has completed.
+     * @return number of completed tasks.
+     */
+    public int getCompletedTaskCount() {
+        return completedTaskIds.cardinality();
     }
 
     /**
@@ -123,7 +162,7 @@ class Profile extends User {
      * @return true if the task is completed, false otherwise.
      */
     public boolean isTaskCompleted(Task task) {
-        return completedTasks.contains(task);
+        return completedTaskIds.get(task.getId());
     }
 
     /**
@@ -131,12 +170,81 @@ class Profile extends User {
      * @param task The completed task.
      */
     public void addCompletedTask(Task task) {
-        if (!completedTasks.contains(task)) {
-            completedTasks.add(task);
+        if (!completedTaskIds.get(task.getId())) {
+            completedTaskIds.set(task.getId());
+            if (categoryCounts != null) {
+                countCategories(categoryCounts, task);
+            }
             addPoints(task.getPointsValue());
         }
     }
 
+    /**
+     * Gets how many completed tasks count toward a category, either a task type
+     * such as "daily" or a task tag such as "water".
+     * @param category type or tag of the tasks to count.
+     * @return number of completed tasks in the category.
+     */
+    public int getCategoryCount(String category) {
+        if (categoryCounts == null) {
+            categoryCounts = new HashMap<>();
+            for (Task task : getCompletedTasks()) {
+                countCategories(categoryCounts, task);
+            }
+        }
+        return categoryCounts.getOrDefault(category, 0);
+    }
+
+    private static void countCategories(Map<String, Integer> counts, Task task) {
+        counts.merge(task.getType(), 1, Integer::sum);
+        for (String tag : task.getTags()) {
+            counts.merge(tag, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Records a completed task by id without awarding points, used when loading.
+     * Ids that are not in the task catalog are dropped.
+     * @param taskId catalog id of the task.
+     */
+    private void markTaskCompleted(int taskId) {
+        if (TaskManager.getTask(taskId) != null) {
+            completedTaskIds.set(taskId);
+        }
+    }
+
+    /**
+     * Gets the spaced-repetition schedule of the quiz questions the user has missed.
+     * @return the review schedule
+     */
+    public ReviewSchedule getReviewSchedule() {
+        return reviewSchedule;
+    }
+
+    /**
+     * Gets the history of the quizzes the user has finished.
+     * @return the quiz history
+     */
+    public QuizHistory getQuizHistory() {
+        return quizHistory;
+    }
+
+    /**
+     * Gets the user's rating from adaptive quizzes, on the same scale as {@link QuestionRatings}.
+     * @return the quiz rating
+     */
+    public double getQuizRating() {
+        return quizRating;
+    }
+
+    /**
+     * Sets the user's rating from adaptive quizzes.
+     * @param quizRating the rating at the end of the last adaptive quiz
+     */
+    public void setQuizRating(double quizRating) {
+        this.quizRating = quizRating;
+    }
+
     /**
      * Sets the user's total points.
      * @param points total number of points.
@@ -159,19 +267,54 @@ class Profile extends User {
         Profile profile = new Profile(name, email, password);
         profile.setPoints(points);
 
-        JSONArray completedTasksArray = json.getJSONArray("completedTasks");
-        for (int i = 0; i < completedTasksArray.length(); i++) {
-            JSONObject taskJson = completedTasksArray.getJSONObject(i);
-            Task task = Task.fromJSON(taskJson); // Ensure Task has a fromJSON method
-            profile.getCompletedTasks().add(task);
+        JSONArray completedTaskBits = json.optJSONArray("completedTaskBits");
+        if (completedTaskBits != null) {
+            long[] words = new long[completedTaskBits.length()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = completedTaskBits.getLong(i);
+            }
+            profile.completedTaskIds = BitSet.valueOf(words);
+        } else {
+            // Saved before the bitset, as a list of task ids or of whole embedded tasks
+            JSONArray completedTasksArray = json.getJSONArray("completedTasks");
+            for (int i = 0; i < completedTasksArray.length(); i++) {
+                JSONObject taskJson = completedTasksArray.optJSONObject(i);
+                if (taskJson != null) {
+                    Task task = resolveLegacyTask(taskJson.optString("title"), taskJson.optInt("id"));
+                    if (task != null) {
+                        profile.markTaskCompleted(task.getId());
+                    }
+                } else {
+                    profile.markTaskCompleted(completedTasksArray.getInt(i));
+                }
+            }
         }
 
         JSONArray badgesArray = json.getJSONArray("badges");
         for (int i = 0; i < badgesArray.length(); i++) {
-            String badge = badgesArray.getString(i);
-            profile.getBadges().add(badge);
+            profile.addBadge(badgesArray.getString(i));
         }
 
+        String reviewSchedule = json.optString("reviewSchedule", null);
+        if (reviewSchedule != null) {
+            try {
+                profile.reviewSchedule = ReviewSchedule.fromBytes(Base64.getDecoder().decode(reviewSchedule));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring unreadable review schedule of " + email + ": " + e.getMessage());
+            }
+        }
+
+        String quizHistory = json.optString("quizHistory", null);
+        if (quizHistory != null) {
+            try {
+                profile.quizHistory = QuizHistory.fromBytes(Base64.getDecoder().decode(quizHistory));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Ignoring unreadable quiz history of " + email + ": " + e.getMessage());
+            }
+        }
+
+        profile.quizRating = json.optDouble("quizRating", QuestionRatings.INITIAL_RATING);
+
         return profile;
     }
 
@@ -186,17 +329,120 @@ class Profile extends User {
         json.put("password", password);
         json.put("points", points);
 
-        JSONArray completedTasksArray = new JSONArray();
-        for (Task task : completedTasks) {
-            completedTasksArray.put(task.toJSON());
+        JSONArray completedTaskBits = new JSONArray();
+        for (long word : completedTaskIds.toLongArray()) {
+            completedTaskBits.put(word);
         }
-        json.put("completedTasks", completedTasksArray);
+        json.put("completedTaskBits", completedTaskBits);
 
         JSONArray badgesArray = new JSONArray();
-        for (String badge : badges) {
+        for (String badge : getBadges()) {
             badgesArray.put(badge);
         }
         json.put("badges", badgesArray);
+
+        if (reviewSchedule.size() > 0) {
+            json.put("reviewSchedule", Base64.getEncoder().encodeToString(reviewSchedule.toBytes()));
+        }
+        if (quizHistory.getAttemptCount() > 0) {
+            json.put("quizHistory", Base64.getEncoder().encodeToString(quizHistory.toBytes()));
+        }
+        if (quizRating != QuestionRatings.INITIAL_RATING) {
+            json.put("quizRating", quizRating);
+        }
         return json;
     }
+
+    /**
+     * Finds the catalog task for a task embedded by an older save, by title first since
+     * ids were only assigned in creation order back then.
+     * @param title title of the saved task
+     * @param id id of the saved task
+     * @return the catalog task, or null if it is no longer in the catalog
+     */
+    private static Task resolveLegacyTask(String title, int id) {
+        Task task = TaskManager.findByTitle(title);
+        return task != null ? task : TaskManager.getTask(id);
+    }
+
+    /**
+     * Reads a profile from its binary snapshot record.
+     * @param in source of the record
+     * @param version snapshot format version the record was written with
+     * @return A Profile object populated with the record's data.
+     */
+    public static Profile readFrom(DataInput in, int version) throws IOException {
+        Profile profile = new Profile(in.readUTF(), in.readUTF(), in.readUTF());
+        profile.setPoints(in.readInt());
+
+        if (version >= 3) {
+            long[] words = new long[in.readInt()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            profile.completedTaskIds = BitSet.valueOf(words);
+        } else {
+            int taskCount = in.readInt();
+            for (int i = 0; i < taskCount; i++) {
+                if (version < 2) {
+                    // Version 1 embedded every field of the task
+                    int id = in.readInt();
+                    String title = in.readUTF();
+                    in.readUTF(); // description
+                    in.readInt(); // points value
+                    in.readBoolean(); // completed
+                    in.readUTF(); // type
+                    Task task = resolveLegacyTask(title, id);
+                    if (task != null) {
+                        profile.markTaskCompleted(task.getId());
+                    }
+                } else {
+                    profile.markTaskCompleted(in.readInt());
+                }
+            }
+        }
+
+        int badgeCount = in.readInt();
+        for (int i = 0; i < badgeCount; i++) {
+            profile.addBadge(in.readUTF());
+        }
+
+        if (version >= 4) {
+            profile.reviewSchedule = ReviewSchedule.readFrom(in);
+        }
+        if (version >= 5) {
+            profile.quizHistory = QuizHistory.readFrom(in);
+        }
+        if (version >= 6) {
+            profile.quizRating = in.readDouble();
+        }
+        return profile;
+    }
+
+    /**
+     * Writes the profile as a binary snapshot record.
+     * @param out destination of the record
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeUTF(email);
+        out.writeUTF(password);
+        out.writeInt(points);
+
+        long[] words = completedTaskIds.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+
+        List<String> badges = getBadges();
+        out.writeInt(badges.size());
+        for (String badge : badges) {
+            out.writeUTF(badge);
+        }
+
+        reviewSchedule.writeTo(out);
+        quizHistory.writeTo(out);
+        out.writeDouble(quizRating);
+    }
 }
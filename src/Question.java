@@ -0,0 +1,79 @@
+/**
+ * An immutable quiz question.
+ *
+ * The correct answer is stored as the index of the option, so checking an
+ * answer is a single int compare rather than a string compare.
+ */
+public final class Question {
+    private final String text;
+    private final String[] options;
+    private final byte correctIndex;
+    private final QuizCategory category;
+
+    /**
+     * Constructor, creates a question
+     * @param text, question text
+     * @param options, the answer options, in display order
+     * @param correctIndex, index of the correct option
+     * @param category, category of the question
+     */
+    public Question(String text, String[] options, int correctIndex, QuizCategory category) {
+        if (correctIndex < 0 || correctIndex >= options.length || options.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid correct option " + correctIndex + " for: " + text);
+        }
+        this.text = text;
+        this.options = options.clone();
+        this.correctIndex = (byte) correctIndex;
+        this.category = category;
+    }
+
+    /**
+     * Getter, gets the question text
+     * @return text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Getter, gets the number of answer options
+     * @return option count
+     */
+    public int getOptionCount() {
+        return options.length;
+    }
+
+    /**
+     * Getter, gets one answer option
+     * @param index, option index
+     * @return option text
+     */
+    public String getOption(int index) {
+        return options[index];
+    }
+
+    /**
+     * Getter, gets the index of the correct option
+     * @return correctIndex
+     */
+    public int getCorrectIndex() {
+        return correctIndex;
+    }
+
+    /**
+     * Getter, gets the category of the question
+     * @return category
+     */
+    public QuizCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Checks an answer.
+     * @param optionIndex, index of the chosen option
+     * @return true if it is the correct option
+     */
+    public boolean isCorrect(int optionIndex) {
+        return optionIndex == correctIndex;
+    }
+}
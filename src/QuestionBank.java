@@ -0,0 +1,251 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The read-only quiz question bank, loaded once per process and shared by every quiz.
+ *
+ * The bank is compiled from quiz/questions.json by {@link QuestionBankCompiler}. When it
+ * sits on disk it is memory-mapped, otherwise (inside a jar) it is read into one buffer.
+ * A fixed-size index entry per question holds the offset of its text along with its
+ * category, difficulty and correct option, so a quiz can be sampled and scored from the
+ * index alone; the text is only decoded when the question is shown. Arrays of the
+ * questions in each category, each difficulty and each pair of the two are built once
+ * at load, so a filtered quiz samples straight from them. The header carries a hash of
+ * the questions, so data saved per question index can tell when the bank was edited.
+ */
+class QuestionBank {
+    static final int MAGIC = 0x45435142; // "ECQB"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16; // magic, version, question count, content hash
+    static final int INDEX_ENTRY_SIZE = 8;
+    private static final String BANK_RESOURCE = "/quiz/questions.bank";
+    private static final String SOURCE_RESOURCE = "/quiz/questions.json";
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int[][] byCategory;
+    private final int[][] byDifficulty;
+    private final int[][] byCategoryAndDifficulty;
+
+    private static class Holder {
+        static final QuestionBank SHARED = load();
+    }
+
+    QuestionBank(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " question bank");
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        int difficulties = Difficulty.values().length;
+        this.byCategory = buildIndex(QuizCategory.values().length, i -> getCategory(i).ordinal());
+        this.byDifficulty = buildIndex(difficulties, i -> getDifficulty(i).ordinal());
+        this.byCategoryAndDifficulty = buildIndex(QuizCategory.values().length * difficulties,
+                i -> getCategory(i).ordinal() * difficulties + getDifficulty(i).ordinal());
+    }
+
+    private int[][] buildIndex(int groups, IntUnaryOperator groupOf) {
+        int[] counts = new int[groups];
+        for (int i = 0; i < size; i++) {
+            counts[groupOf.applyAsInt(i)]++;
+        }
+        int[][] index = new int[groups][];
+        for (int g = 0; g < groups; g++) {
+            index[g] = new int[counts[g]];
+            counts[g] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            int g = groupOf.applyAsInt(i);
+            index[g][counts[g]++] = i;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the bank shared by every quiz in the process, loading it on first use.
+     * @return the shared bank
+     */
+    public static QuestionBank shared() {
+        return Holder.SHARED;
+    }
+
+    private static QuestionBank load() {
+        try {
+            URL url = QuestionBank.class.getResource(BANK_RESOURCE);
+            if (url != null && "file".equals(url.getProtocol())) {
+                try (FileChannel channel = FileChannel.open(Paths.get(url.toURI()), StandardOpenOption.READ)) {
+                    return new QuestionBank(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                }
+            }
+            if (url != null) {
+                try (InputStream in = url.openStream()) {
+                    byte[] bytes = in.readAllBytes();
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+                    buffer.put(bytes).flip();
+                    return new QuestionBank(buffer);
+                }
+            }
+            // No compiled bank on the classpath, compile the source in memory instead
+            try (InputStream in = QuestionBank.class.getResourceAsStream(SOURCE_RESOURCE)) {
+                if (in == null) {
+                    throw new IllegalStateException("No question bank found at " + BANK_RESOURCE);
+                }
+                return new QuestionBank(QuestionBankCompiler.compile(in));
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Could not load the question bank", e);
+        }
+    }
+
+    /**
+     * Getter, gets the number of questions in the bank
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Getter, gets the hash of the bank's questions, which changes whenever a question is
+     * added, removed, reordered or edited
+     * @return content hash
+     */
+    public int getContentHash() {
+        return buffer.getInt(12);
+    }
+
+    private int entry(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Question " + index + " of " + size);
+        }
+        return HEADER_SIZE + index * INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * Getter, gets the number of questions in a category
+     * @param category, quiz category
+     * @return question count
+     */
+    public int size(QuizCategory category) {
+        return byCategory[category.ordinal()].length;
+    }
+
+    /**
+     * Gets a question of a category by its position within that category.
+     * @param category, quiz category
+     * @param position, position from 0 to size(category) - 1
+     * @return the question's index in the bank
+     */
+    public int questionIn(QuizCategory category, int position) {
+        return byCategory[category.ordinal()][position];
+    }
+
+    /**
+     * Getter, gets the number of questions matching a filter
+     * @param category, quiz category, or null for any
+     * @param difficulty, difficulty, or null for any
+     * @return question count
+     */
+    public int size(QuizCategory category, Difficulty difficulty) {
+        int[] questions = filter(category, difficulty);
+        return questions == null ? size : questions.length;
+    }
+
+    /**
+     * Gets a question matching a filter by its position among the matching questions.
+     * @param category, quiz category, or null for any
+     * @param difficulty, difficulty, or null for any
+     * @param position, position from 0 to size(category, difficulty) - 1
+     * @return the question's index in the bank
+     */
+    public int questionIn(QuizCategory category, Difficulty difficulty, int position) {
+        int[] questions = filter(category, difficulty);
+        return questions == null ? position : questions[position];
+    }
+
+    private int[] filter(QuizCategory category, Difficulty difficulty) {
+        if (category != null && difficulty != null) {
+            return byCategoryAndDifficulty[category.ordinal() * Difficulty.values().length + difficulty.ordinal()];
+        }
+        if (category != null) {
+            return byCategory[category.ordinal()];
+        }
+        if (difficulty != null) {
+            return byDifficulty[difficulty.ordinal()];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the category of a question without decoding it.
+     * @param index, question index
+     * @return category
+     */
+    public QuizCategory getCategory(int index) {
+        return QuizCategory.fromOrdinal(buffer.get(entry(index) + 4));
+    }
+
+    /**
+     * Gets the difficulty of a question without decoding it. Questions compiled
+     * without a difficulty count as medium.
+     * @param index, question index
+     * @return difficulty
+     */
+    public Difficulty getDifficulty(int index) {
+        int stored = buffer.get(entry(index) + 7);
+        return stored == 0 ? Difficulty.MEDIUM : Difficulty.fromOrdinal(stored - 1);
+    }
+
+    /**
+     * Gets the correct option of a question without decoding it.
+     * @param index, question index
+     * @return index of the correct option
+     */
+    public int getCorrectIndex(int index) {
+        return buffer.get(entry(index) + 5);
+    }
+
+    /**
+     * Gets the number of options of a question without decoding it.
+     * @param index, question index
+     * @return option count
+     */
+    public int getOptionCount(int index) {
+        return buffer.get(entry(index) + 6);
+    }
+
+    /**
+     * Decodes a question's text and options.
+     * @param index, question index
+     * @return the question
+     */
+    public Question get(int index) {
+        int entry = entry(index);
+        int position = buffer.getInt(entry);
+        String[] options = new String[getOptionCount(index)];
+
+        int length = Short.toUnsignedInt(buffer.getShort(position));
+        String text = decode(position + 2, length);
+        position += 2 + length;
+        for (int i = 0; i < options.length; i++) {
+            length = Short.toUnsignedInt(buffer.getShort(position));
+            options[i] = decode(position + 2, length);
+            position += 2 + length;
+        }
+        return new Question(text, options, getCorrectIndex(index), getCategory(index));
+    }
+
+    private String decode(int position, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,105 @@
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles the editable question source (quiz/questions.json) into the binary bank
+ * read by {@link QuestionBank}.
+ *
+ * Run it after editing the questions:
+ * java QuestionBankCompiler src/quiz/questions.json src/quiz/questions.bank
+ */
+class QuestionBankCompiler {
+
+    /**
+     * Compiles a question source file into a bank file.
+     * @param args, source path and bank path
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java QuestionBankCompiler <questions.json> <questions.bank>");
+            System.exit(2);
+        }
+        ByteBuffer bank;
+        try (InputStream in = new FileInputStream(args[0])) {
+            bank = compile(in);
+        }
+        byte[] bytes = new byte[bank.remaining()];
+        bank.get(bytes);
+        Files.write(Paths.get(args[1]), bytes);
+        System.out.println("Compiled " + bank.getInt(8) + " questions to " + args[1]);
+    }
+
+    /**
+     * Compiles a question source into the bank format.
+     * @param source, JSON question source
+     * @return the bank, positioned at its start
+     */
+    public static ByteBuffer compile(InputStream source) throws IOException {
+        JSONObject json = new JSONObject(new JSONTokener(
+                new InputStreamReader(source, StandardCharsets.UTF_8)));
+        JSONArray questions = json.getJSONArray("questions");
+        int count = questions.length();
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(records);
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        int recordsStart = QuestionBank.HEADER_SIZE + count * QuestionBank.INDEX_ENTRY_SIZE;
+
+        for (int i = 0; i < count; i++) {
+            JSONObject question = questions.getJSONObject(i);
+            String text = question.getString("text");
+            JSONArray options = question.getJSONArray("options");
+            int correctIndex = -1;
+            for (int o = 0; o < options.length(); o++) {
+                if (options.getString(o).equals(question.getString("answer"))) {
+                    correctIndex = o;
+                }
+            }
+            if (correctIndex < 0 || options.length() > Byte.MAX_VALUE) {
+                throw new IOException("Question " + i + " has no valid answer: " + text);
+            }
+            QuizCategory category = QuizCategory.fromDisplayName(question.getString("category"));
+            String difficulty = question.optString("difficulty", null);
+
+            indexOut.writeInt(recordsStart + records.size());
+            indexOut.writeByte(category.ordinal());
+            indexOut.writeByte(correctIndex);
+            indexOut.writeByte(options.length());
+            // Difficulty ordinal + 1, 0 for a question without one
+            indexOut.writeByte(difficulty == null ? 0 : Difficulty.fromDisplayName(difficulty).ordinal() + 1);
+
+            writeString(recordOut, text);
+            for (int o = 0; o < options.length(); o++) {
+                writeString(recordOut, options.getString(o));
+            }
+        }
+
+        ByteArrayOutputStream bank = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bank);
+        out.writeInt(QuestionBank.MAGIC);
+        out.writeInt(QuestionBank.VERSION);
+        out.writeInt(count);
+        CRC32 hash = new CRC32();
+        hash.update(index.toByteArray());
+        hash.update(records.toByteArray());
+        out.writeInt((int) hash.getValue());
+        index.writeTo(out);
+        records.writeTo(out);
+        return ByteBuffer.wrap(bank.toByteArray());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,181 @@
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Elo-style difficulty ratings for the questions in a bank, shared by every quiz
+ * in the process.
+ *
+ * A question and the player answering it are treated as two players: a correct
+ * answer is a win for the player, a wrong one a win for the question. Questions
+ * that many people miss drift upwards and become the "hard" questions. The shared
+ * ratings are saved to quiz_ratings.json like {@link QuestionStats}, keyed by the
+ * bank's content hash.
+ *
+ * Every adaptive quiz reads and moves these ratings, so they take no lock: each
+ * rating is a float kept as its bits in an {@link AtomicIntegerArray} and moved
+ * with compare-and-set.
+ */
+class QuestionRatings {
+    static final double INITIAL_RATING = 1500;
+    private static final double SCALE = 400;
+    private static final double PLAYER_K = 32;
+    private static final double QUESTION_K = 8;
+    private static final String DATA_FILE = "quiz_ratings.json";
+    private static final long SAVE_INTERVAL_MILLIS = Long.getLong("ecospark.quiz.statsIntervalMillis", 60_000);
+
+    private final AtomicIntegerArray ratings; // float bits
+    private final LongAdder updates = new LongAdder();
+    private long savedUpdates;
+
+    private static class Holder {
+        static final QuestionRatings SHARED = createShared();
+    }
+
+    /**
+     * Constructor, creates ratings for a bank of the given size
+     * @param size, number of questions
+     */
+    public QuestionRatings(int size) {
+        ratings = new AtomicIntegerArray(size);
+        int initial = Float.floatToIntBits((float) INITIAL_RATING);
+        for (int i = 0; i < size; i++) {
+            ratings.set(i, initial);
+        }
+    }
+
+    /**
+     * Gets the ratings for the shared question bank.
+     * @return the shared ratings
+     */
+    public static QuestionRatings shared() {
+        return Holder.SHARED;
+    }
+
+    private static QuestionRatings createShared() {
+        QuestionBank bank = QuestionBank.shared();
+        QuestionRatings ratings = new QuestionRatings(bank.size());
+        File file = new File(DATA_FILE);
+        try {
+            ratings.load(file, bank.getContentHash());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not load question ratings, starting fresh: " + e.getMessage());
+        }
+        ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-ratings-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(() -> ratings.saveIfChanged(file, bank.getContentHash()),
+                SAVE_INTERVAL_MILLIS, SAVE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> ratings.saveIfChanged(file, bank.getContentHash()),
+                "quiz-ratings-shutdown"));
+        return ratings;
+    }
+
+    /**
+     * Getter, gets the rating of a question
+     * @param question, question index
+     * @return rating
+     */
+    public double getRating(int question) {
+        return Float.intBitsToFloat(ratings.get(question));
+    }
+
+    /**
+     * Gets the chance that a player answers a question correctly.
+     * @param playerRating, rating of the player
+     * @param question, question index
+     * @return probability between 0 and 1
+     */
+    public double expectedScore(double playerRating, int question) {
+        return expectedScore(playerRating, getRating(question));
+    }
+
+    private static double expectedScore(double playerRating, double questionRating) {
+        return 1 / (1 + Math.pow(10, (questionRating - playerRating) / SCALE));
+    }
+
+    /**
+     * Records an answer, moving the question's rating and returning the player's new rating.
+     * @param playerRating, rating of the player before answering
+     * @param question, question index
+     * @param correct, whether the answer was correct
+     * @return the player's rating after the answer
+     */
+    public double recordAnswer(double playerRating, int question, boolean correct) {
+        double surprise;
+        int bits;
+        float rating;
+        do {
+            bits = ratings.get(question);
+            rating = Float.intBitsToFloat(bits);
+            surprise = (correct ? 1 : 0) - expectedScore(playerRating, rating);
+        } while (!ratings.compareAndSet(question, bits, Float.floatToIntBits((float) (rating - QUESTION_K * surprise))));
+        updates.increment();
+        return playerRating + PLAYER_K * surprise;
+    }
+
+    /**
+     * Saves the ratings if any changed since the last save. Answers recorded while
+     * saving are picked up by the next save. Only the saver and shutdown threads lock here.
+     * @param file, ratings file
+     * @param bankHash, content hash of the bank the ratings belong to
+     */
+    public synchronized void saveIfChanged(File file, int bankHash) {
+        long snapshotUpdates = updates.sum();
+        if (snapshotUpdates == savedUpdates) {
+            return;
+        }
+        JSONObject json = new JSONObject();
+        json.put("version", 1);
+        json.put("bankHash", bankHash);
+        JSONArray values = new JSONArray();
+        for (int i = 0; i < ratings.length(); i++) {
+            values.put(Float.intBitsToFloat(ratings.get(i)));
+        }
+        json.put("ratings", values);
+        try {
+            AtomicFileWriter.replace(file, temp -> {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                    json.write(writer);
+                }
+            });
+            savedUpdates = snapshotUpdates;
+        } catch (IOException e) {
+            System.err.println("Could not save question ratings: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the ratings saved in a ratings file, if it exists. Ratings saved for a
+     * different or edited bank are ignored, as the question indices no longer match.
+     * @param file, ratings file
+     * @param bankHash, content hash of the bank the ratings belong to
+     */
+    public synchronized void load(File file, int bankHash) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        JSONObject json;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            json = new JSONObject(new JSONTokener(reader));
+        }
+        JSONArray values = json.getJSONArray("ratings");
+        if (json.getInt("bankHash") != bankHash || values.length() != ratings.length()) {
+            System.err.println("Question ratings are for a different question bank, ignoring them");
+            return;
+        }
+        for (int i = 0; i < ratings.length(); i++) {
+            ratings.set(i, Float.floatToIntBits((float) values.getDouble(i)));
+        }
+    }
+}
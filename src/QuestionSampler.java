@@ -0,0 +1,57 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Draws the questions for a quiz without touching the rest of the bank.
+ *
+ * This is a Fisher-Yates shuffle that stops after k swaps and remembers only the
+ * positions it has swapped, so picking 20 questions costs the same whether the
+ * bank holds a hundred questions or ten million.
+ */
+class QuestionSampler {
+    private final SplittableRandom random;
+
+    /**
+     * Constructor, creates a sampler with an unpredictable seed
+     */
+    public QuestionSampler() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Constructor, creates a sampler that draws the same quizzes for the same seed
+     * @param seed, random seed
+     */
+    public QuestionSampler(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructor, creates a sampler that draws from the given source
+     * @param random, source of randomness
+     */
+    public QuestionSampler(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Draws distinct indices in random order.
+     * @param populationSize, number of questions to draw from
+     * @param count, number of questions wanted, capped at the population size
+     * @return the drawn indices
+     */
+    public int[] sample(int populationSize, int count) {
+        int[] sample = new int[Math.min(count, populationSize)];
+        Map<Integer, Integer> swapped = new HashMap<>(sample.length * 2);
+        for (int i = 0; i < sample.length; i++) {
+            int j = random.nextInt(i, populationSize);
+            int atJ = swapped.getOrDefault(j, j);
+            sample[i] = atJ;
+            if (j != i) {
+                swapped.put(j, swapped.getOrDefault(i, i));
+            }
+        }
+        return sample;
+    }
+}
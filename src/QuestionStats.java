@@ -0,0 +1,285 @@
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answer statistics for every question in the bank, collected across all quizzes
+ * in the process and saved to quiz_stats.json.
+ *
+ * Every answer adds to its category's totals, so those few counters are hot and
+ * each is a {@link LongAdder}, which stripes itself only once threads contend on
+ * it. The per-question counters are spread over the whole bank and two quizzes
+ * rarely answer the same question at the same moment, so they are one plain
+ * {@link AtomicLongArray} and memory grows with the bank alone. Nothing takes a lock.
+ * Saved counts carry the bank's content hash and are only loaded into the same bank.
+ */
+class QuestionStats {
+    private static final String DATA_FILE = "quiz_stats.json";
+    private static final long SAVE_INTERVAL_MILLIS = Long.getLong("ecospark.quiz.statsIntervalMillis", 60_000);
+    private static final int ATTEMPTS = 0;
+    private static final int CORRECT = 1;
+    private static final int PICKS = 2;
+
+    private final QuestionBank bank;
+    private final int questionCount;
+    private final int slotsPerQuestion;
+    private final AtomicLongArray questionCounts;
+    private final LongAdder[] categoryCounts;
+    private long savedTotal;
+
+    private static class Holder {
+        static final QuestionStats SHARED = createShared();
+    }
+
+    /**
+     * Constructor, creates empty statistics for a bank
+     * @param bank, question bank
+     */
+    public QuestionStats(QuestionBank bank) {
+        this.bank = bank;
+        this.questionCount = bank.size();
+        int maxOptions = 0;
+        for (int i = 0; i < questionCount; i++) {
+            maxOptions = Math.max(maxOptions, bank.getOptionCount(i));
+        }
+        this.slotsPerQuestion = PICKS + maxOptions;
+        this.questionCounts = new AtomicLongArray(questionCount * slotsPerQuestion);
+        this.categoryCounts = new LongAdder[QuizCategory.values().length * 2];
+        for (int i = 0; i < categoryCounts.length; i++) {
+            categoryCounts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Gets the statistics shared by every quiz, loading the saved counts on first use
+     * and saving them periodically after that.
+     * @return the shared statistics
+     */
+    public static QuestionStats shared() {
+        return Holder.SHARED;
+    }
+
+    private static QuestionStats createShared() {
+        QuestionStats stats = new QuestionStats(QuestionBank.shared());
+        File file = new File(DATA_FILE);
+        try {
+            stats.load(file);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not load quiz statistics, starting fresh: " + e.getMessage());
+        }
+        ScheduledExecutorService saver = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-stats-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        saver.scheduleWithFixedDelay(() -> stats.saveIfChanged(file),
+                SAVE_INTERVAL_MILLIS, SAVE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stats.saveIfChanged(file), "quiz-stats-shutdown"));
+        return stats;
+    }
+
+    /**
+     * Records one answer.
+     * @param question, question index
+     * @param optionIndex, option the player picked
+     * @param correct, whether it was the correct option
+     */
+    public void record(int question, int optionIndex, boolean correct) {
+        int base = question * slotsPerQuestion;
+        int category = bank.getCategory(question).ordinal() * 2;
+        questionCounts.getAndIncrement(base + ATTEMPTS);
+        categoryCounts[category + ATTEMPTS].increment();
+        if (correct) {
+            questionCounts.getAndIncrement(base + CORRECT);
+            categoryCounts[category + CORRECT].increment();
+        }
+        if (optionIndex >= 0 && optionIndex < slotsPerQuestion - PICKS) {
+            questionCounts.getAndIncrement(base + PICKS + optionIndex);
+        }
+    }
+
+    /**
+     * Getter, gets how often a question has been answered
+     * @param question, question index
+     * @return attempts
+     */
+    public long getAttempts(int question) {
+        return questionCounts.get(question * slotsPerQuestion + ATTEMPTS);
+    }
+
+    /**
+     * Getter, gets how often a question has been answered correctly
+     * @param question, question index
+     * @return correct answers
+     */
+    public long getCorrect(int question) {
+        return questionCounts.get(question * slotsPerQuestion + CORRECT);
+    }
+
+    /**
+     * Getter, gets how often an option of a question has been picked
+     * @param question, question index
+     * @param optionIndex, option index
+     * @return picks
+     */
+    public long getPicks(int question, int optionIndex) {
+        return questionCounts.get(question * slotsPerQuestion + PICKS + optionIndex);
+    }
+
+    /**
+     * Getter, gets how often questions of a category have been answered
+     * @param category, quiz category
+     * @return attempts
+     */
+    public long getAttempts(QuizCategory category) {
+        return categoryCounts[category.ordinal() * 2 + ATTEMPTS].sum();
+    }
+
+    /**
+     * Getter, gets how often questions of a category have been answered correctly
+     * @param category, quiz category
+     * @return correct answers
+     */
+    public long getCorrect(QuizCategory category) {
+        return categoryCounts[category.ordinal() * 2 + CORRECT].sum();
+    }
+
+    /**
+     * Finds the questions with the lowest share of correct answers.
+     * @param limit, most questions to return
+     * @param minAttempts, questions answered fewer times than this are skipped
+     * @return question indices, hardest first
+     */
+    public int[] getHardestQuestions(int limit, long minAttempts) {
+        // Max-heap on correct rate holding the limit hardest seen so far
+        PriorityQueue<double[]> hardest = new PriorityQueue<>(limit + 1, (a, b) -> Double.compare(b[1], a[1]));
+        for (int i = 0; i < questionCount; i++) {
+            long attempts = getAttempts(i);
+            if (attempts == 0 || attempts < minAttempts) {
+                continue;
+            }
+            hardest.add(new double[]{i, (double) getCorrect(i) / attempts});
+            if (hardest.size() > limit) {
+                hardest.poll();
+            }
+        }
+        int[] result = new int[hardest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = (int) hardest.poll()[0];
+        }
+        return result;
+    }
+
+    /**
+     * Finds the wrong option picked most often for a question.
+     * @param question, question index
+     * @return option index, or -1 if no wrong option has been picked
+     */
+    public int getMostPickedWrongOption(int question) {
+        int best = -1;
+        long bestPicks = 0;
+        for (int option = 0; option < bank.getOptionCount(question); option++) {
+            if (option == bank.getCorrectIndex(question)) {
+                continue;
+            }
+            long picks = getPicks(question, option);
+            if (picks > bestPicks) {
+                best = option;
+                bestPicks = picks;
+            }
+        }
+        return best;
+    }
+
+    private long getTotalAttempts() {
+        long total = 0;
+        for (QuizCategory category : QuizCategory.values()) {
+            total += getAttempts(category);
+        }
+        return total;
+    }
+
+    /**
+     * Saves the statistics if anything was recorded since the last save.
+     * @param file, statistics file
+     */
+    public synchronized void saveIfChanged(File file) {
+        long total = getTotalAttempts();
+        if (total == savedTotal) {
+            return;
+        }
+        try {
+            save(file);
+            savedTotal = total;
+        } catch (IOException e) {
+            System.err.println("Could not save quiz statistics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the statistics.
+     * @param file, statistics file
+     */
+    public void save(File file) throws IOException {
+        JSONObject json = new JSONObject();
+        json.put("version", 2);
+        json.put("bankHash", bank.getContentHash());
+        json.put("questionCount", questionCount);
+        JSONArray questions = new JSONArray();
+        for (int i = 0; i < questionCount; i++) {
+            JSONArray counts = new JSONArray();
+            for (int slot = 0; slot < slotsPerQuestion; slot++) {
+                counts.put(questionCounts.get(i * slotsPerQuestion + slot));
+            }
+            questions.put(counts);
+        }
+        json.put("questions", questions);
+
+        AtomicFileWriter.replace(file, temp -> {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+                json.write(writer);
+            }
+        });
+    }
+
+    /**
+     * Adds the counts saved in a statistics file, if it exists. Counts saved for a
+     * different bank, or one that has been edited since, are ignored, as the question
+     * indices no longer match.
+     * @param file, statistics file
+     */
+    public synchronized void load(File file) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        JSONObject json;
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            json = new JSONObject(new JSONTokener(reader));
+        }
+        if (!json.has("bankHash") || json.getInt("bankHash") != bank.getContentHash()
+                || json.getInt("questionCount") != questionCount) {
+            System.err.println("Quiz statistics are for a different question bank, ignoring them");
+            return;
+        }
+        JSONArray questions = json.getJSONArray("questions");
+        for (int i = 0; i < questionCount; i++) {
+            JSONArray counts = questions.getJSONArray(i);
+            int category = bank.getCategory(i).ordinal() * 2;
+            for (int slot = 0; slot < Math.min(slotsPerQuestion, counts.length()); slot++) {
+                questionCounts.addAndGet(i * slotsPerQuestion + slot, counts.getLong(slot));
+            }
+            categoryCounts[category + ATTEMPTS].add(counts.getLong(ATTEMPTS));
+            categoryCounts[category + CORRECT].add(counts.getLong(CORRECT));
+        }
+        savedTotal = getTotalAttempts();
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * The topics quiz questions are grouped under.
+ */
+public enum QuizCategory {
+    ENVIRONMENT("Environment"),
+    ENERGY("Energy"),
+    POLICY("Policy"),
+    TECHNOLOGY("Technology");
+
+    private static final QuizCategory[] VALUES = values();
+    private final String displayName;
+
+    QuizCategory(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Getter, gets the name shown to users
+     * @return displayName
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Looks up a category by its ordinal, as stored in compact question data.
+     * @param ordinal, category ordinal
+     * @return the category
+     */
+    public static QuizCategory fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Looks up a category by its display name.
+     * @param displayName, name such as "Energy"
+     * @return the category
+     */
+    public static QuizCategory fromDisplayName(String displayName) {
+        for (QuizCategory category : VALUES) {
+            if (category.displayName.equals(displayName)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown quiz category: " + displayName);
+    }
+}
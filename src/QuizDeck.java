@@ -0,0 +1,38 @@
+/**
+ * The questions of one quiz, drawn and decoded ahead of time by {@link QuizDeckPool}.
+ * A deck is handed to exactly one {@link QuizBackend}.
+ */
+final class QuizDeck {
+    private final int[] questionIndices;
+    private final Question[] questions;
+
+    /**
+     * Constructor, draws and decodes a deck
+     * @param bank, question bank
+     * @param sampler, sampler used to draw the questions
+     * @param size, number of questions
+     */
+    QuizDeck(QuestionBank bank, QuestionSampler sampler, int size) {
+        questionIndices = sampler.sample(bank.size(), size);
+        questions = new Question[questionIndices.length];
+        for (int i = 0; i < questions.length; i++) {
+            questions[i] = bank.get(questionIndices[i]);
+        }
+    }
+
+    /**
+     * Getter, gets the bank indices of the questions
+     * @return question indices, in quiz order
+     */
+    int[] getQuestionIndices() {
+        return questionIndices;
+    }
+
+    /**
+     * Getter, gets the decoded questions
+     * @return questions, in quiz order
+     */
+    Question[] getQuestions() {
+        return questions;
+    }
+}
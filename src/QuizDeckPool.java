@@ -0,0 +1,119 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a few quiz decks ready so starting a quiz is a queue poll instead of
+ * loading the bank, sampling and decoding on the caller's thread.
+ *
+ * A daemon thread refills the pool whenever a deck is taken. If the pool is ever
+ * empty the deck is built on the caller's thread and counted as a miss. Each thread
+ * draws with its own sampler, so misses on different threads never wait for each other.
+ *
+ * Decks hold decoded questions, so they suit the desktop quiz. Headless sessions keep
+ * to index-only backends, see {@link QuizSessionManager}.
+ */
+class QuizDeckPool {
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("ecospark.quiz.deckPoolSize", 4);
+
+    private final BlockingQueue<QuizDeck> decks;
+    private final int deckSize;
+    private final ThreadLocal<QuestionSampler> samplers = ThreadLocal.withInitial(QuestionSampler::new);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Thread refillThread;
+
+    private static class Holder {
+        static final QuizDeckPool SHARED = new QuizDeckPool(DEFAULT_CAPACITY, QuizBackend.QUESTIONS_PER_QUIZ);
+    }
+
+    /**
+     * Constructor, creates a pool and starts filling it in the background
+     * @param capacity, number of decks kept ready
+     * @param deckSize, questions per deck
+     */
+    public QuizDeckPool(int capacity, int deckSize) {
+        this.decks = new ArrayBlockingQueue<>(capacity);
+        this.deckSize = deckSize;
+        refillThread = new Thread(this::refill, "quiz-deck-refill");
+        refillThread.setDaemon(true);
+        refillThread.start();
+    }
+
+    /**
+     * Gets the pool shared by every quiz, starting it on first use.
+     * @return the shared pool
+     */
+    public static QuizDeckPool shared() {
+        return Holder.SHARED;
+    }
+
+    private void refill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                decks.put(newDeck());
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private QuizDeck newDeck() {
+        // The sampler's SplittableRandom is not thread-safe and a miss builds on the caller's thread
+        return new QuizDeck(QuestionBank.shared(), samplers.get(), deckSize);
+    }
+
+    /**
+     * Takes a ready deck, or builds one if none is ready.
+     * @return a deck for one quiz
+     */
+    public QuizDeck take() {
+        QuizDeck deck = decks.poll();
+        if (deck != null) {
+            hits.incrementAndGet();
+            return deck;
+        }
+        misses.incrementAndGet();
+        return newDeck();
+    }
+
+    /**
+     * Getter, gets the number of decks ready right now
+     * @return ready decks
+     */
+    public int getReadyCount() {
+        return decks.size();
+    }
+
+    /**
+     * Getter, gets the number of decks served from the pool
+     * @return hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Getter, gets the number of decks built on the caller's thread because the pool was empty
+     * @return misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Getter, gets the share of decks served from the pool
+     * @return hit rate from 0 to 1
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * Stops refilling the pool.
+     */
+    public void close() {
+        refillThread.interrupt();
+    }
+}
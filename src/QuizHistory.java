@@ -0,0 +1,226 @@
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Every quiz a user has finished: when, the score, and the results per category.
+ *
+ * Attempts are appended to one byte array as variable-length integers, with each
+ * timestamp stored as the number of seconds since the previous attempt, so a typical
+ * attempt takes about a dozen bytes. Lifetime totals and the last
+ * {@value #RECENT_WINDOW} scores are kept alongside, so averages are answered
+ * without decoding the history.
+ */
+class QuizHistory {
+    static final int RECENT_WINDOW = 32;
+    private static final int FORMAT_VERSION = 1;
+
+    private byte[] data = {FORMAT_VERSION};
+    private int length = 1;
+    private long lastSeconds;
+
+    private int attemptCount;
+    private long lifetimeCorrect;
+    private long lifetimeAnswered;
+    private final long[] correctByCategory = new long[QuizCategory.values().length];
+    private final long[] answeredByCategory = new long[QuizCategory.values().length];
+    private final short[] recentScores = new short[RECENT_WINDOW];
+    private final short[] recentTotals = new short[RECENT_WINDOW];
+
+    /**
+     * Receives the attempts of a history while it is decoded.
+     */
+    interface AttemptVisitor {
+        void attempt(long timeMillis, int score, int total, int[] correctByCategory, int[] totalByCategory);
+    }
+
+    /**
+     * Records a finished quiz.
+     * @param timeMillis, when the quiz was finished
+     * @param score, correct answers
+     * @param total, questions asked
+     * @param correct, correct answers per category ordinal
+     * @param answered, questions asked per category ordinal
+     */
+    public void record(long timeMillis, int score, int total, int[] correct, int[] answered) {
+        long seconds = timeMillis / 1000;
+        ensureCapacity(length + 10 + 5 * (3 + 2 * correct.length));
+        writeVarLong(zigZag(seconds - lastSeconds));
+        writeVarLong(score);
+        writeVarLong(total);
+        writeVarLong(correct.length);
+        for (int c = 0; c < correct.length; c++) {
+            writeVarLong(correct[c]);
+            writeVarLong(answered[c]);
+        }
+        summarize(seconds, score, total, correct, answered);
+    }
+
+    private void summarize(long seconds, int score, int total, int[] correct, int[] answered) {
+        lastSeconds = seconds;
+        int slot = attemptCount % RECENT_WINDOW;
+        recentScores[slot] = (short) Math.min(score, Short.MAX_VALUE);
+        recentTotals[slot] = (short) Math.min(total, Short.MAX_VALUE);
+        attemptCount++;
+        lifetimeCorrect += score;
+        lifetimeAnswered += total;
+        for (int c = 0; c < correct.length && c < correctByCategory.length; c++) {
+            correctByCategory[c] += correct[c];
+            answeredByCategory[c] += answered[c];
+        }
+    }
+
+    /**
+     * Getter, gets the number of quizzes finished
+     * @return attempt count
+     */
+    public int getAttemptCount() {
+        return attemptCount;
+    }
+
+    /**
+     * Getter, gets when the last quiz was finished
+     * @return time in milliseconds, or 0 if no quiz was finished
+     */
+    public long getLastAttemptMillis() {
+        return attemptCount == 0 ? 0 : lastSeconds * 1000;
+    }
+
+    /**
+     * Gets the average score of the most recent quizzes.
+     * @param attempts, number of recent quizzes to average, at most {@value #RECENT_WINDOW}
+     * @return share of correct answers from 0 to 1, or 0 if no quiz was finished
+     */
+    public double getRecentAverage(int attempts) {
+        int count = Math.min(Math.min(attempts, RECENT_WINDOW), attemptCount);
+        long correct = 0;
+        long answered = 0;
+        for (int i = 1; i <= count; i++) {
+            int slot = (attemptCount - i) % RECENT_WINDOW;
+            correct += recentScores[slot];
+            answered += recentTotals[slot];
+        }
+        return answered == 0 ? 0 : (double) correct / answered;
+    }
+
+    /**
+     * Gets the share of correct answers over every quiz finished.
+     * @return accuracy from 0 to 1
+     */
+    public double getAccuracy() {
+        return lifetimeAnswered == 0 ? 0 : (double) lifetimeCorrect / lifetimeAnswered;
+    }
+
+    /**
+     * Gets the share of correct answers in one category over every quiz finished.
+     * @param category, quiz category
+     * @return accuracy from 0 to 1
+     */
+    public double getAccuracy(QuizCategory category) {
+        long answered = answeredByCategory[category.ordinal()];
+        return answered == 0 ? 0 : (double) correctByCategory[category.ordinal()] / answered;
+    }
+
+    /**
+     * Decodes the history, oldest attempt first.
+     * @param visitor, receives each attempt
+     */
+    public void forEach(AttemptVisitor visitor) {
+        int[] position = {1};
+        long seconds = 0;
+        while (position[0] < length) {
+            seconds += unZigZag(readVarLong(data, position));
+            int score = (int) readVarLong(data, position);
+            int total = (int) readVarLong(data, position);
+            int categories = (int) readVarLong(data, position);
+            int[] correct = new int[categories];
+            int[] answered = new int[categories];
+            for (int c = 0; c < categories; c++) {
+                correct[c] = (int) readVarLong(data, position);
+                answered[c] = (int) readVarLong(data, position);
+            }
+            visitor.attempt(seconds * 1000, score, total, correct, answered);
+        }
+    }
+
+    /**
+     * Encodes the history as bytes.
+     * @return the compact binary form
+     */
+    public byte[] toBytes() {
+        return Arrays.copyOf(data, length);
+    }
+
+    /**
+     * Decodes a history from bytes.
+     * @param bytes, the compact binary form
+     * @return the history
+     */
+    public static QuizHistory fromBytes(byte[] bytes) throws IOException {
+        if (bytes.length == 0 || bytes[0] != FORMAT_VERSION) {
+            throw new IOException("Unsupported quiz history version " + (bytes.length == 0 ? "none" : bytes[0]));
+        }
+        QuizHistory history = new QuizHistory();
+        history.data = bytes.clone();
+        history.length = bytes.length;
+        try {
+            history.forEach((timeMillis, score, total, correct, answered) ->
+                    history.summarize(timeMillis / 1000, score, total, correct, answered));
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated quiz history", e);
+        }
+        return history;
+    }
+
+    /**
+     * Writes the history as a length-prefixed block.
+     * @param out, destination
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(length);
+        out.write(data, 0, length);
+    }
+
+    /**
+     * Reads a history written by {@link #writeTo(DataOutput)}.
+     * @param in, source
+     * @return the history
+     */
+    public static QuizHistory readFrom(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return fromBytes(bytes);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many quizzes at once for a headless deployment, one {@link QuizBackend}
+ * per session over the shared {@link QuestionBank}.
+ *
+ * A session only holds its question indices, cursor and score, so ten thousand
+ * sessions take a few megabytes. Sessions are looked up in a ConcurrentHashMap and
+ * each one is locked on its own, so sessions never wait for each other. Sessions
+ * left idle for longer than the idle timeout are evicted in the background, and
+ * no more than maxSessions exist at a time.
+ */
+class QuizSessionManager {
+    private static final long DEFAULT_IDLE_MILLIS = Long.getLong("ecospark.quiz.sessionIdleMillis", 30 * 60 * 1000L);
+    private static final int DEFAULT_MAX_SESSIONS = Integer.getInteger("ecospark.quiz.maxSessions", 20_000);
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleNanos;
+    private final int maxSessions;
+    private final ScheduledExecutorService evictor;
+
+    private static class Session {
+        final QuizBackend quiz;
+        volatile long lastAccess = System.nanoTime();
+
+        Session(QuizBackend quiz) {
+            this.quiz = quiz;
+        }
+    }
+
+    /**
+     * Constructor, creates a manager with the configured idle timeout and session limit
+     */
+    public QuizSessionManager() {
+        this(DEFAULT_IDLE_MILLIS, DEFAULT_MAX_SESSIONS);
+    }
+
+    /**
+     * Constructor, creates a manager
+     * @param idleMillis, time after which an untouched session is evicted
+     * @param maxSessions, most sessions that may exist at once
+     */
+    public QuizSessionManager(long idleMillis, int maxSessions) {
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.maxSessions = maxSessions;
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "quiz-session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, idleMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts a new quiz session.
+     * @param adaptive, true for an adaptive quiz
+     * @return the session id
+     */
+    public String startSession(boolean adaptive) {
+        // Not from QuizDeckPool: a deck carries decoded questions, a session only its indices
+        QuizBackend.Options options = new QuizBackend.Options();
+        return addSession(new QuizBackend(adaptive ? options.adaptive() : options));
+    }
+
+    /**
+     * Starts a new quiz session limited to a category and/or a difficulty.
+     * @param category, quiz category, or null for any
+     * @param difficulty, difficulty, or null for any
+     * @return the session id
+     */
+    public String startSession(QuizCategory category, Difficulty difficulty) {
+        return addSession(new QuizBackend(new QuizBackend.Options().only(category, difficulty)));
+    }
+
+    private String addSession(QuizBackend quiz) {
+        if (sessions.size() >= maxSessions) {
+            evictIdle();
+            if (sessions.size() >= maxSessions) {
+                throw new IllegalStateException("Too many quiz sessions, limit is " + maxSessions);
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, new Session(quiz));
+        return id;
+    }
+
+    private Session session(String id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            throw new NoSuchElementException("No quiz session " + id + ", it may have expired");
+        }
+        session.lastAccess = System.nanoTime();
+        return session;
+    }
+
+    /**
+     * Gets the question a session is currently on.
+     * @param id, session id
+     * @return the question, or null when the quiz is over
+     */
+    public Question getCurrentQuestion(String id) {
+        Session session = session(id);
+        synchronized (session) {
+            return session.quiz.getCurrentQuestion();
+        }
+    }
+
+    /**
+     * Answers the current question of a session.
+     * @param id, session id
+     * @param optionIndex, index of the chosen option
+     * @return true if the answer was correct
+     */
+    public boolean checkAnswer(String id, int optionIndex) {
+        Session session = session(id);
+        synchronized (session) {
+            if (!session.quiz.hasMoreQuestions()) {
+                throw new IllegalStateException("Quiz session " + id + " is already finished");
+            }
+            return session.quiz.checkAnswer(optionIndex);
+        }
+    }
+
+    /**
+     * Checks if a session has questions left.
+     * @param id, session id
+     * @return true if there are more questions
+     */
+    public boolean hasMoreQuestions(String id) {
+        Session session = session(id);
+        synchronized (session) {
+            return session.quiz.hasMoreQuestions();
+        }
+    }
+
+    /**
+     * Getter, gets the score of a session
+     * @param id, session id
+     * @return score
+     */
+    public int getScore(String id) {
+        Session session = session(id);
+        synchronized (session) {
+            return session.quiz.getScore();
+        }
+    }
+
+    /**
+     * Ends a session and frees its state.
+     * @param id, session id
+     * @return the final score, or -1 if the session did not exist
+     */
+    public int endSession(String id) {
+        Session session = sessions.remove(id);
+        if (session == null) {
+            return -1;
+        }
+        synchronized (session) {
+            return session.quiz.getScore();
+        }
+    }
+
+    /**
+     * Removes every session that has been idle for longer than the idle timeout.
+     * @return number of sessions removed
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = sessions.size();
+        sessions.values().removeIf(session -> now - session.lastAccess > idleNanos);
+        return Math.max(0, before - sessions.size());
+    }
+
+    /**
+     * Getter, gets the number of live sessions
+     * @return session count
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stops the background eviction and drops every session.
+     */
+    public void close() {
+        evictor.shutdownNow();
+        sessions.clear();
+    }
+}
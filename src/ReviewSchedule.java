@@ -0,0 +1,318 @@
+import java.io.*;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * A user's spaced-repetition queue of quiz questions they have missed, scheduled
+ * with SM-2 intervals (1 day, 6 days, then the last interval times an ease factor
+ * that drops each time the question is missed again).
+ *
+ * Entries are kept in parallel primitive arrays ordered as a binary min-heap on
+ * due time, about 13 bytes per entry plus an open-addressed index from question to
+ * heap slot, so adding, rescheduling or finding a question is O(log n). The
+ * on-disk form is the same 13 bytes per entry, after the content hash of the
+ * question bank the indices belong to.
+ */
+class ReviewSchedule {
+    private static final int FORMAT_VERSION = 2;
+    private static final short INITIAL_EASE = 250; // hundredths
+    private static final short MIN_EASE = 130;
+    private static final int QUALITY_CORRECT = 4;
+    private static final int QUALITY_MISSED = 2;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private int size;
+    private int[] questions = new int[4];
+    private int[] dueMinutes = new int[4];
+    private short[] intervalDays = new short[4];
+    private short[] ease = new short[4];
+    private byte[] repetitions = new byte[4];
+    private int bankHash; // 0 until tied to a bank, and for schedules saved before the hash was
+
+    // Open-addressed question -> heap slot + 1, 0 marks an empty bucket
+    private int[] indexKeys = new int[8];
+    private int[] indexSlots = new int[8];
+
+    /**
+     * Records an answer to a question. A miss adds the question or sends it back to a
+     * one day interval; a correct answer to a scheduled question stretches its interval.
+     * Correct answers to questions that were never missed are not tracked.
+     * @param question, question index in the bank
+     * @param correct, whether the answer was correct
+     * @param nowMillis, current time
+     */
+    public void recordAnswer(int question, boolean correct, long nowMillis) {
+        int slot = find(question);
+        if (slot < 0) {
+            if (correct) {
+                return;
+            }
+            slot = add(question);
+        }
+        int quality = correct ? QUALITY_CORRECT : QUALITY_MISSED;
+        if (quality < 3) {
+            repetitions[slot] = 0;
+            intervalDays[slot] = 1;
+        } else {
+            int interval;
+            if (repetitions[slot] == 0) {
+                interval = 1;
+            } else if (repetitions[slot] == 1) {
+                interval = 6;
+            } else {
+                interval = Math.round(intervalDays[slot] * ease[slot] / 100f);
+            }
+            intervalDays[slot] = (short) Math.min(interval, Short.MAX_VALUE);
+            if (repetitions[slot] < Byte.MAX_VALUE) {
+                repetitions[slot]++;
+            }
+        }
+        int missedBy = 5 - quality;
+        int newEase = ease[slot] + 10 - missedBy * (8 + missedBy * 2);
+        ease[slot] = (short) Math.max(MIN_EASE, newEase);
+        dueMinutes[slot] = (int) (toMinutes(nowMillis) + intervalDays[slot] * MINUTES_PER_DAY);
+        siftDown(siftUp(slot));
+    }
+
+    /**
+     * Ties the schedule to a question bank. A schedule saved against a different or
+     * edited bank is cleared, as its question indices no longer match.
+     * @param bankHash, content hash of the bank the quiz draws from
+     */
+    public void checkBank(int bankHash) {
+        if (this.bankHash != bankHash && this.bankHash != 0 && size > 0) {
+            System.err.println("Review schedule is for a different question bank, clearing it");
+            clear();
+        }
+        this.bankHash = bankHash;
+    }
+
+    private void clear() {
+        size = 0;
+        Arrays.fill(indexSlots, 0);
+    }
+
+    private static long toMinutes(long millis) {
+        return millis / 60_000;
+    }
+
+    /**
+     * Getter, gets the number of questions in the schedule
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts the questions that are due.
+     * @param nowMillis, current time
+     * @return due count
+     */
+    public int getDueCount(long nowMillis) {
+        return getDue(Integer.MAX_VALUE, nowMillis).length;
+    }
+
+    /**
+     * Gets the questions that are due, most overdue first, without changing the schedule.
+     * @param limit, most questions to return
+     * @param nowMillis, current time
+     * @return question indices
+     */
+    public int[] getDue(int limit, long nowMillis) {
+        long now = toMinutes(nowMillis);
+        int[] due = new int[Math.min(limit, size)];
+        int count = 0;
+        // Walk the heap best-first, only expanding slots that are due
+        PriorityQueue<Integer> frontier = new PriorityQueue<>((a, b) -> Integer.compare(dueMinutes[a], dueMinutes[b]));
+        if (size > 0) {
+            frontier.add(0);
+        }
+        while (count < due.length && !frontier.isEmpty()) {
+            int slot = frontier.poll();
+            if (dueMinutes[slot] > now) {
+                break;
+            }
+            due[count++] = questions[slot];
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                frontier.add(child);
+            }
+        }
+        return Arrays.copyOf(due, count);
+    }
+
+    /**
+     * Checks if a question is in the schedule.
+     * @param question, question index
+     * @return true if it is scheduled
+     */
+    public boolean contains(int question) {
+        return find(question) >= 0;
+    }
+
+    private int add(int question) {
+        if (size == questions.length) {
+            int capacity = size * 2;
+            questions = Arrays.copyOf(questions, capacity);
+            dueMinutes = Arrays.copyOf(dueMinutes, capacity);
+            intervalDays = Arrays.copyOf(intervalDays, capacity);
+            ease = Arrays.copyOf(ease, capacity);
+            repetitions = Arrays.copyOf(repetitions, capacity);
+        }
+        int slot = size++;
+        questions[slot] = question;
+        ease[slot] = INITIAL_EASE;
+        setSlot(question, slot);
+        return slot;
+    }
+
+    private int siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (dueMinutes[parent] <= dueMinutes[slot]) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && dueMinutes[left] < dueMinutes[smallest]) {
+                smallest = left;
+            }
+            if (right < size && dueMinutes[right] < dueMinutes[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int question = questions[a];
+        questions[a] = questions[b];
+        questions[b] = question;
+        int due = dueMinutes[a];
+        dueMinutes[a] = dueMinutes[b];
+        dueMinutes[b] = due;
+        short interval = intervalDays[a];
+        intervalDays[a] = intervalDays[b];
+        intervalDays[b] = interval;
+        short factor = ease[a];
+        ease[a] = ease[b];
+        ease[b] = factor;
+        byte reps = repetitions[a];
+        repetitions[a] = repetitions[b];
+        repetitions[b] = reps;
+        setSlot(questions[a], a);
+        setSlot(questions[b], b);
+    }
+
+    private int bucket(int question) {
+        int mask = indexKeys.length - 1;
+        int bucket = (question * 0x9E3779B9) >>> (32 - Integer.bitCount(mask));
+        while (indexSlots[bucket] != 0 && indexKeys[bucket] != question) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    private int find(int question) {
+        return indexSlots[bucket(question)] - 1;
+    }
+
+    private void setSlot(int question, int slot) {
+        int bucket = bucket(question);
+        if (indexSlots[bucket] == 0 && (size + 1) * 2 > indexKeys.length) {
+            int[] oldKeys = indexKeys;
+            int[] oldSlots = indexSlots;
+            indexKeys = new int[oldKeys.length * 2];
+            indexSlots = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldSlots[i] != 0) {
+                    int rehashed = bucket(oldKeys[i]);
+                    indexKeys[rehashed] = oldKeys[i];
+                    indexSlots[rehashed] = oldSlots[i];
+                }
+            }
+            bucket = bucket(question);
+        }
+        indexKeys[bucket] = question;
+        indexSlots[bucket] = slot + 1;
+    }
+
+    /**
+     * Writes the schedule in its compact binary form.
+     * @param out, destination
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeInt(bankHash);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(questions[i]);
+            out.writeInt(dueMinutes[i]);
+            out.writeShort(intervalDays[i]);
+            out.writeShort(ease[i]);
+            out.writeByte(repetitions[i]);
+        }
+    }
+
+    /**
+     * Reads a schedule written by {@link #writeTo(DataOutput)}.
+     * @param in, source
+     * @return the schedule
+     */
+    public static ReviewSchedule readFrom(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Unsupported review schedule version " + version);
+        }
+        ReviewSchedule schedule = new ReviewSchedule();
+        if (version >= 2) {
+            schedule.bankHash = in.readInt();
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            // Written in heap order, so each entry is appended where it already belongs
+            int slot = schedule.add(in.readInt());
+            schedule.dueMinutes[slot] = in.readInt();
+            schedule.intervalDays[slot] = in.readShort();
+            schedule.ease[slot] = in.readShort();
+            schedule.repetitions[slot] = in.readByte();
+        }
+        return schedule;
+    }
+
+    /**
+     * Encodes the schedule as bytes.
+     * @return the compact binary form
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(9 + size * 13);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a schedule from bytes.
+     * @param bytes, the compact binary form
+     * @return the schedule
+     */
+    public static ReviewSchedule fromBytes(byte[] bytes) throws IOException {
+        return readFrom(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
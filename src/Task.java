@@ -1,8 +1,15 @@
 import org.json.JSONObject;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * The Task class defines a task with attributes
  * such as title, point, completion, type, and description
+ *
+ * Tasks are created once, by the {@link TaskManager} catalog, and shared by every
+ * profile; profiles only store the task's id.
  */
 public class Task {
     private int id;
@@ -11,22 +18,33 @@ public class Task {
     private int pointsValue;
     private boolean completed;
     private String type;
-    private static int taskIdCounter = 1;
+    private List<String> tags;
 
     /**
      * Constructor, creates new instance of Task class
+     * @param id, stable catalog id of the task, stored in saved profiles
      * @param title, title of task
      * @param description, description of task
      * @param pointsValue, amount of points assigned to task
      * @param type, type of task
+     * @param tags, categories the task counts toward, such as "water" or "energy"
      */
-    public Task(String title, String description, int pointsValue, String type) {
-        this.id = taskIdCounter++;
+    public Task(int id, String title, String description, int pointsValue, String type, String... tags) {
+        this.id = id;
         this.title = title;
         this.description = description;
         this.pointsValue = pointsValue;
         this.completed = false;
         this.type = type;
+        this.tags = Collections.unmodifiableList(Arrays.asList(tags.clone()));
+    }
+
+    /**
+     * Getter, gets catalog id of task
+     * @return id
+     */
+    public int getId() {
+        return id;
     }
 
     /**
@@ -61,6 +79,14 @@ public class Task {
         return type;
     }
 
+    /**
+     * Getter, gets the categories the task counts toward
+     * @return tags
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
     /**
      * Converts the task into a JSON representation.
      *
@@ -74,37 +100,10 @@ public class Task {
         json.put("pointsValue", pointsValue);
         json.put("completed", completed);
         json.put("type", type);
+        json.put("tags", tags);
         return json;
     }
 
-    /**
-     * Creates a Task object from a JSON representation.
-     *
-     * @param json JSON object
-     * @return A Task object populated with the JSON data.
-     */
-    public static Task fromJSON(JSONObject json) {
-        Task task = new Task(
-                json.getString("title"),
-                json.getString("description"),
-                json.getInt("pointsValue"),
-                json.getString("type")
-        );
-
-        if (json.has("id")) {
-            task.id = json.getInt("id");
-            if (task.id >= taskIdCounter) {
-                taskIdCounter = task.id + 1;
-            }
-        }
-
-        if (json.has("completed")) {
-            task.completed = json.getBoolean("completed");
-        }
-
-        return task;
-    }
-
     /**
      * Overriden method returning string of tasks
      * @return
@@ -118,6 +117,7 @@ public class Task {
                 ", pointsValue=" + pointsValue +
                 ", completed=" + completed +
                 ", type='" + type + '\'' +
+                ", tags=" + tags +
                 '}';
     }
 }
\ No newline at end of file
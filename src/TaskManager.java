@@ -1,91 +1,137 @@
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Manages ecofriendly tasks and stores them by how often
  * they can be completed
+ *
+ * The task catalog is built once per process and every TaskManager shares it, so each
+ * task exists exactly once in memory. A task's id is its position in the catalog and is
+ * what profiles save, so new tasks must only ever be appended at the end.
  */
 public class TaskManager {
+    private static final List<Task> CATALOG = Collections.unmodifiableList(buildCatalog());
+    private static final Map<String, Task> CATALOG_BY_TITLE = indexByTitle(CATALOG);
     private List<Task> taskLibrary;
 
     /**
      * Constructs new instance of TaskManager and initialized task library
      */
     public TaskManager() {
-        taskLibrary = new ArrayList<>();
-        initializeTaskLibrary();
+        taskLibrary = CATALOG;
     }
 
     /**
      * Populates the task library with predefined eco-friendly tasks.
+     * @return the catalog, in id order
      */
-    private void initializeTaskLibrary() {
-        taskLibrary.add(new Task("Recycle a water bottle", "Collect and properly recycle plastic water bottles.", 5, "daily"));
-        taskLibrary.add(new Task("Use reusable bags", "Bring your own reusable bags when shopping.", 10, "daily"));
-        taskLibrary.add(new Task("Turn off lights", "Turn off lights when leaving a room to save energy.", 5, "daily"));
-        taskLibrary.add(new Task("Save water", "Take shorter showers to conserve water.", 10, "daily"));
-        taskLibrary.add(new Task("Reduce plastic use", "Avoid single-use plastics for a day.", 15, "daily"));
-        taskLibrary.add(new Task("Unplug electronics when not in use", "Unplug devices to eliminate phantom energy drain.", 5, "daily"));
-        taskLibrary.add(new Task("Wash clothes in cold water", "Save energy by washing clothes in cold water.", 6, "daily"));
-        taskLibrary.add(new Task("Line-dry clothes", "Use a clothesline instead of a dryer to save energy.", 12, "daily"));
-        taskLibrary.add(new Task("Bring reusable bags while shopping", "Avoid single-use plastic bags.", 6, "daily"));
-        taskLibrary.add(new Task("Use a reusable water bottle", "Avoid disposable plastic bottles.", 7, "daily"));
+    private static List<Task> buildCatalog() {
+        List<Task> catalog = new ArrayList<>();
+
+        // Daily Tasks
+        addTask(catalog, "Recycle a water bottle", "Collect and properly recycle plastic water bottles.", 5, "daily", "waste", "plastic");
+        addTask(catalog, "Use reusable bags", "Bring your own reusable bags when shopping.", 10, "daily", "plastic", "waste");
+        addTask(catalog, "Turn off lights", "Turn off lights when leaving a room to save energy.", 5, "daily", "energy");
+        addTask(catalog, "Save water", "Take shorter showers to conserve water.", 10, "daily", "water");
+        addTask(catalog, "Reduce plastic use", "Avoid single-use plastics for a day.", 15, "daily", "plastic", "oceans");
+        addTask(catalog, "Unplug electronics when not in use", "Unplug devices to eliminate phantom energy drain.", 5, "daily", "energy");
+        addTask(catalog, "Wash clothes in cold water", "Save energy by washing clothes in cold water.", 6, "daily", "energy");
+        addTask(catalog, "Line-dry clothes", "Use a clothesline instead of a dryer to save energy.", 12, "daily", "energy", "climate");
+        addTask(catalog, "Bring reusable bags while shopping", "Avoid single-use plastic bags.", 6, "daily", "plastic");
+        addTask(catalog, "Use a reusable water bottle", "Avoid disposable plastic bottles.", 7, "daily", "plastic", "water");
 
         // Weekly Tasks
-        taskLibrary.add(new Task("Walk or bike", "Choose walking or biking instead of driving for short trips.", 15, "weekly"));
-        taskLibrary.add(new Task("Reduce meat consumption", "Have a meat-free day to reduce your carbon footprint.", 20, "weekly"));
-        taskLibrary.add(new Task("Use public transport", "Take public transportation instead of driving alone.", 25, "weekly"));
-        taskLibrary.add(new Task("Inflate tires properly", "Improve fuel efficiency by maintaining proper tire pressure.", 5, "weekly"));
-        taskLibrary.add(new Task("Combine errands into fewer trips", "Reduce emissions by planning efficient trips.", 8, "weekly"));
-        taskLibrary.add(new Task("Work from home", "Eliminate commuting emissions by working remotely.", 20, "weekly"));
-        taskLibrary.add(new Task("Maintain your vehicle", "Keep your car in good condition to reduce emissions.", 8, "weekly"));
-        taskLibrary.add(new Task("Use cloth napkins", "Replace disposable paper napkins with reusable ones.", 6, "weekly"));
-        taskLibrary.add(new Task("Buy in bulk", "Reduce packaging waste by purchasing in bulk.", 9, "weekly"));
-        taskLibrary.add(new Task("Use reusable food containers", "Avoid single-use plastic wrap and containers.", 7, "weekly"));
+        addTask(catalog, "Walk or bike", "Choose walking or biking instead of driving for short trips.", 15, "weekly", "transport", "air");
+        addTask(catalog, "Reduce meat consumption", "Have a meat-free day to reduce your carbon footprint.", 20, "weekly", "sustainable_food", "climate");
+        addTask(catalog, "Use public transport", "Take public transportation instead of driving alone.", 25, "weekly", "transport", "air");
+        addTask(catalog, "Inflate tires properly", "Improve fuel efficiency by maintaining proper tire pressure.", 5, "weekly", "transport");
+        addTask(catalog, "Combine errands into fewer trips", "Reduce emissions by planning efficient trips.", 8, "weekly", "transport", "air");
+        addTask(catalog, "Work from home", "Eliminate commuting emissions by working remotely.", 20, "weekly", "transport", "climate");
+        addTask(catalog, "Maintain your vehicle", "Keep your car in good condition to reduce emissions.", 8, "weekly", "transport", "air");
+        addTask(catalog, "Use cloth napkins", "Replace disposable paper napkins with reusable ones.", 6, "weekly", "waste");
+        addTask(catalog, "Buy in bulk", "Reduce packaging waste by purchasing in bulk.", 9, "weekly", "waste", "plastic");
+        addTask(catalog, "Use reusable food containers", "Avoid single-use plastic wrap and containers.", 7, "weekly", "plastic", "waste");
 
         // Monthly Tasks
-        taskLibrary.add(new Task("Plant a tree", "Plant a tree to help absorb CO2 from the atmosphere.", 50, "monthly"));
-        taskLibrary.add(new Task("Clean up litter", "Collect and dispose of litter in your neighborhood.", 30, "monthly"));
-        taskLibrary.add(new Task("Donate unwanted items", "Give usable items a second life instead of trashing them.", 10, "monthly"));
-        taskLibrary.add(new Task("Opt out of junk mail", "Reduce paper waste by stopping unwanted mail.", 6, "monthly"));
-        taskLibrary.add(new Task("Calculate your carbon footprint", "Understand your environmental impact.", 8, "monthly"));
-        taskLibrary.add(new Task("Read books on environmental topics", "Educate yourself about sustainability.", 7, "monthly"));
-        taskLibrary.add(new Task("Support environmental organizations", "Contribute to conservation efforts.", 15, "monthly"));
-        taskLibrary.add(new Task("Volunteer for community cleanup events", "Help keep your community clean.", 15, "monthly"));
-        taskLibrary.add(new Task("Participate in local environmental initiatives", "Get involved in local projects.", 12, "monthly"));
-        taskLibrary.add(new Task("Educate others about eco-friendly practices", "Spread awareness about sustainability.", 10, "monthly"));
+        addTask(catalog, "Plant a tree", "Plant a tree to help absorb CO2 from the atmosphere.", 50, "monthly", "forest", "climate", "air");
+        addTask(catalog, "Clean up litter", "Collect and dispose of litter in your neighborhood.", 30, "monthly", "community", "waste", "oceans");
+        addTask(catalog, "Donate unwanted items", "Give usable items a second life instead of trashing them.", 10, "monthly", "waste", "community");
+        addTask(catalog, "Opt out of junk mail", "Reduce paper waste by stopping unwanted mail.", 6, "monthly", "waste", "forest");
+        addTask(catalog, "Calculate your carbon footprint", "Understand your environmental impact.", 8, "monthly", "climate");
+        addTask(catalog, "Read books on environmental topics", "Educate yourself about sustainability.", 7, "monthly");
+        addTask(catalog, "Support environmental organizations", "Contribute to conservation efforts.", 15, "monthly", "advocacy");
+        addTask(catalog, "Volunteer for community cleanup events", "Help keep your community clean.", 15, "monthly", "community", "waste");
+        addTask(catalog, "Participate in local environmental initiatives", "Get involved in local projects.", 12, "monthly", "community", "advocacy");
+        addTask(catalog, "Educate others about eco-friendly practices", "Spread awareness about sustainability.", 10, "monthly", "advocacy", "community");
 
         // One-Time Tasks
-        taskLibrary.add(new Task("Install a programmable thermostat", "Automatically adjust your home temperature to save energy.", 15, "one-time"));
-        taskLibrary.add(new Task("Replace incandescent bulbs with LEDs", "Use energy-efficient lighting.", 8, "one-time"));
-        taskLibrary.add(new Task("Install low-flow showerheads", "Reduce water usage with efficient fixtures.", 10, "one-time"));
-        taskLibrary.add(new Task("Fix leaky faucets", "Prevent water waste by repairing leaks.", 7, "one-time"));
-        taskLibrary.add(new Task("Install a rain barrel", "Collect rainwater for garden use.", 20, "one-time"));
-        taskLibrary.add(new Task("Use smart power strips", "Eliminate phantom energy usage.", 8, "one-time"));
-        taskLibrary.add(new Task("Apply weatherstripping to doors and windows", "Seal air leaks to improve energy efficiency.", 14, "one-time"));
-        taskLibrary.add(new Task("Plant shade trees around your home", "Reduce cooling costs with strategic landscaping.", 25, "one-time"));
-        taskLibrary.add(new Task("Switch to a tankless water heater", "Heat water on demand to save energy.", 18, "one-time"));
-        taskLibrary.add(new Task("Add insulation to your attic", "Improve home insulation to reduce energy loss.", 22, "one-time"));
-        taskLibrary.add(new Task("Install a dual-flush toilet", "Reduce water consumption with efficient toilets.", 15, "one-time"));
-        taskLibrary.add(new Task("Set up a graywater system", "Reuse water from sinks and showers for irrigation.", 30, "one-time"));
-        taskLibrary.add(new Task("Start a backyard compost pile", "Turn food scraps into nutrient-rich compost.", 15, "one-time"));
-        taskLibrary.add(new Task("Grow some of your own food", "Start a home garden to reduce food miles.", 18, "one-time"));
-        taskLibrary.add(new Task("Start a recycling program at work", "Encourage recycling in your workplace.", 15, "one-time"));
-        taskLibrary.add(new Task("Encourage paperless practices at work", "Reduce paper usage in your office.", 10, "one-time"));
-        taskLibrary.add(new Task("Suggest energy efficiency improvements", "Identify ways to save energy at work.", 12, "one-time"));
-        taskLibrary.add(new Task("Set up a carpool system with colleagues", "Reduce commuting emissions by carpooling.", 14, "one-time"));
-        taskLibrary.add(new Task("Start a workplace sustainability committee", "Drive sustainability initiatives at work.", 20, "one-time"));
-        taskLibrary.add(new Task("Conduct a workplace energy audit", "Identify energy-saving opportunities at work.", 15, "one-time"));
-        taskLibrary.add(new Task("Advocate for green purchasing policies", "Promote sustainable procurement at work.", 12, "one-time"));
-        taskLibrary.add(new Task("Bring plants into the office environment", "Improve air quality and morale with indoor plants.", 6, "one-time"));
-        taskLibrary.add(new Task("Learn a sustainability skill", "Develop skills like food preservation or basic repairs.", 15, "one-time"));
-        taskLibrary.add(new Task("Talk with children about environmental stewardship", "Educate the next generation about sustainability.", 10, "one-time"));
-        taskLibrary.add(new Task("Organize a neighborhood swap meet", "Exchange items to reduce waste.", 12, "one-time"));
-        taskLibrary.add(new Task("Plant native species in your garden", "Support local ecosystems with native plants.", 16, "one-time"));
-        taskLibrary.add(new Task("Create a wildlife-friendly yard", "Provide habitat for local wildlife.", 18, "one-time"));
-        taskLibrary.add(new Task("Join a citizen science project", "Contribute to environmental research.", 10, "one-time"));
-        taskLibrary.add(new Task("Advocate for renewable energy in your community", "Promote clean energy solutions locally.", 18, "one-time"));
+        addTask(catalog, "Install a programmable thermostat", "Automatically adjust your home temperature to save energy.", 15, "one-time", "energy", "innovation");
+        addTask(catalog, "Replace incandescent bulbs with LEDs", "Use energy-efficient lighting.", 8, "one-time", "energy");
+        addTask(catalog, "Install low-flow showerheads", "Reduce water usage with efficient fixtures.", 10, "one-time", "water");
+        addTask(catalog, "Fix leaky faucets", "Prevent water waste by repairing leaks.", 7, "one-time", "water");
+        addTask(catalog, "Install a rain barrel", "Collect rainwater for garden use.", 20, "one-time", "water", "soil");
+        addTask(catalog, "Use smart power strips", "Eliminate phantom energy usage.", 8, "one-time", "energy", "innovation");
+        addTask(catalog, "Apply weatherstripping to doors and windows", "Seal air leaks to improve energy efficiency.", 14, "one-time", "energy");
+        addTask(catalog, "Plant shade trees around your home", "Reduce cooling costs with strategic landscaping.", 25, "one-time", "forest", "energy");
+        addTask(catalog, "Switch to a tankless water heater", "Heat water on demand to save energy.", 18, "one-time", "energy", "innovation");
+        addTask(catalog, "Add insulation to your attic", "Improve home insulation to reduce energy loss.", 22, "one-time", "energy");
+        addTask(catalog, "Install a dual-flush toilet", "Reduce water consumption with efficient toilets.", 15, "one-time", "water");
+        addTask(catalog, "Set up a graywater system", "Reuse water from sinks and showers for irrigation.", 30, "one-time", "water", "innovation");
+        addTask(catalog, "Start a backyard compost pile", "Turn food scraps into nutrient-rich compost.", 15, "one-time", "soil", "waste", "sustainable_food");
+        addTask(catalog, "Grow some of your own food", "Start a home garden to reduce food miles.", 18, "one-time", "sustainable_food", "soil");
+        addTask(catalog, "Start a recycling program at work", "Encourage recycling in your workplace.", 15, "one-time", "waste", "community");
+        addTask(catalog, "Encourage paperless practices at work", "Reduce paper usage in your office.", 10, "one-time", "forest", "waste");
+        addTask(catalog, "Suggest energy efficiency improvements", "Identify ways to save energy at work.", 12, "one-time", "energy", "innovation");
+        addTask(catalog, "Set up a carpool system with colleagues", "Reduce commuting emissions by carpooling.", 14, "one-time", "transport", "community");
+        addTask(catalog, "Start a workplace sustainability committee", "Drive sustainability initiatives at work.", 20, "one-time", "community", "advocacy");
+        addTask(catalog, "Conduct a workplace energy audit", "Identify energy-saving opportunities at work.", 15, "one-time", "energy", "innovation");
+        addTask(catalog, "Advocate for green purchasing policies", "Promote sustainable procurement at work.", 12, "one-time", "advocacy");
+        addTask(catalog, "Bring plants into the office environment", "Improve air quality and morale with indoor plants.", 6, "one-time", "air");
+        addTask(catalog, "Learn a sustainability skill", "Develop skills like food preservation or basic repairs.", 15, "one-time", "innovation");
+        addTask(catalog, "Talk with children about environmental stewardship", "Educate the next generation about sustainability.", 10, "one-time", "advocacy");
+        addTask(catalog, "Organize a neighborhood swap meet", "Exchange items to reduce waste.", 12, "one-time", "community", "waste");
+        addTask(catalog, "Plant native species in your garden", "Support local ecosystems with native plants.", 16, "one-time", "biodiversity", "soil");
+        addTask(catalog, "Create a wildlife-friendly yard", "Provide habitat for local wildlife.", 18, "one-time", "wildlife", "biodiversity");
+        addTask(catalog, "Join a citizen science project", "Contribute to environmental research.", 10, "one-time", "biodiversity", "wildlife");
+        addTask(catalog, "Advocate for renewable energy in your community", "Promote clean energy solutions locally.", 18, "one-time", "advocacy", "energy", "climate");
+        return catalog;
+    }
+
+    private static void addTask(List<Task> catalog, String title, String description, int pointsValue, String type,
+                                String... tags) {
+        catalog.add(new Task(catalog.size() + 1, title, description, pointsValue, type, tags));
+    }
+
+    private static Map<String, Task> indexByTitle(List<Task> catalog) {
+        Map<String, Task> byTitle = new HashMap<>();
+        for (Task task : catalog) {
+            byTitle.putIfAbsent(task.getTitle(), task);
+        }
+        return byTitle;
+    }
 
+    /**
+     * Looks up a catalog task by its id.
+     * @param id, task id
+     * @return the task, or null if the catalog has no such task
+     */
+    public static Task getTask(int id) {
+        if (id < 1 || id > CATALOG.size()) {
+            return null;
+        }
+        return CATALOG.get(id - 1);
+    }
+
+    /**
+     * Looks up a catalog task by its title, used for profiles saved before tasks had stable ids.
+     * @param title, task title
+     * @return the task, or null if the catalog has no such task
+     */
+    public static Task findByTitle(String title) {
+        return CATALOG_BY_TITLE.get(title);
     }
 
     /**
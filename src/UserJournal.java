@@ -0,0 +1,179 @@
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Append-only log of profile changes that sits next to the users.json snapshot.
+ *
+ * Every change is one line of JSON, either a full "put" of a single profile or a
+ * "delete" of an email, so saving one profile costs one small append instead of
+ * rewriting every user. The snapshot plus the journal replayed in order gives the
+ * current state; compaction folds the journal back into the snapshot.
+ */
+class UserJournal {
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+
+    private final File file;
+    private final File rotatedFile;
+    private FileOutputStream stream;
+    private Writer writer;
+    private int entryCount;
+
+    /**
+     * Receives the entries of a journal while it is replayed.
+     */
+    interface Replay {
+        void put(JSONObject profileJson);
+
+        void delete(String email);
+    }
+
+    /**
+     * Constructor, creates a journal stored in the given file
+     * @param file, journal file
+     */
+    public UserJournal(File file) {
+        this.file = file;
+        this.rotatedFile = new File(file.getPath() + ".old");
+    }
+
+    /**
+     * Appends a batch of changes to the journal with a single write and a single fsync.
+     * @param changes, JSON of each changed profile by email, or null for a deleted profile
+     */
+    public synchronized void appendAll(Map<String, JSONObject> changes) throws IOException {
+        if (writer == null) {
+            writer = openWriter();
+        }
+        for (Map.Entry<String, JSONObject> change : changes.entrySet()) {
+            JSONObject entry = new JSONObject();
+            if (change.getValue() != null) {
+                entry.put("op", OP_PUT);
+                entry.put("profile", change.getValue());
+            } else {
+                entry.put("op", OP_DELETE);
+                entry.put("email", change.getKey());
+            }
+            writer.write(entry.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+        stream.getChannel().force(false);
+        entryCount += changes.size();
+    }
+
+    private Writer openWriter() throws IOException {
+        boolean tornTail = false;
+        if (file.length() > 0) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                raf.seek(file.length() - 1);
+                tornTail = raf.read() != '\n';
+            }
+        }
+        stream = new FileOutputStream(file, true);
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        if (tornTail) {
+            // Keep a line cut short by a crash from swallowing the next entry
+            out.write('\n');
+        }
+        return out;
+    }
+
+    /**
+     * Getter, gets the number of entries appended since the last compaction
+     * @return entryCount
+     */
+    public synchronized int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Replays the rotated journal left by an unfinished compaction, then the live journal.
+     * @param replay, receiver of the entries
+     */
+    public synchronized void replay(Replay replay) throws IOException {
+        replayFile(rotatedFile, replay);
+        entryCount = replayFile(file, replay);
+    }
+
+    private int replayFile(File source, Replay replay) throws IOException {
+        if (!source.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(source), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JSONObject entry;
+                try {
+                    entry = new JSONObject(line);
+                } catch (JSONException e) {
+                    // A line torn by a crash mid-append, the entries around it are intact
+                    continue;
+                }
+                if (OP_PUT.equals(entry.getString("op"))) {
+                    replay.put(entry.getJSONObject("profile"));
+                } else if (OP_DELETE.equals(entry.getString("op"))) {
+                    replay.delete(entry.getString("email"));
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Starts compaction by moving the live journal aside, so new changes go to a fresh file
+     * while the snapshot is written. Must be called while the caller's state is consistent.
+     */
+    public synchronized void rotate() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            stream = null;
+        }
+        if (file.exists()) {
+            if (rotatedFile.exists()) {
+                // An earlier compaction never finished, keep its entries ahead of the newer ones
+                appendFile(file, rotatedFile);
+                file.delete();
+            } else if (!file.renameTo(rotatedFile)) {
+                throw new IOException("Could not rotate journal " + file);
+            }
+        }
+        entryCount = 0;
+    }
+
+    private static void appendFile(File source, File target) throws IOException {
+        try (InputStream in = new FileInputStream(source);
+             OutputStream out = new FileOutputStream(target, true)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Finishes compaction once the snapshot holding the rotated entries is on disk.
+     */
+    public synchronized void discardRotated() {
+        rotatedFile.delete();
+    }
+
+    /**
+     * Closes the journal file.
+     */
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            stream = null;
+        }
+    }
+}
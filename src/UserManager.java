@@ -1,25 +1,81 @@
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import javax.swing.*;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Manages user profiles including storing profiles and authenticating
+ *
+ * Profiles live in the users.json snapshot plus an append-only journal of the
+ * changes made since that snapshot was written (see {@link UserJournal}).
+ * With -Decospark.binarySnapshot=true the snapshot is users.N.bin instead, a
+ * memory-mapped {@link BinarySnapshot} whose profiles are decoded on first use.
+ * Every binary compaction writes the next generation N under a new name, because a
+ * file that is still mapped cannot be replaced on every platform; older generations
+ * are deleted once nothing maps them. Whichever snapshot was written last is loaded
+ * in either mode, so switching modes carries the profiles over and the next
+ * compaction writes them in the new format.
+ *
+ * One instance is shared by the whole application through {@link ApplicationModel}.
+ * The model, the main window and each open dashboard register a {@link ProfileListener},
+ * so a change saved through any path, such as a quiz badge award, reaches all of them.
  */
 class UserManager {
     private static final String DATA_FILE = "users.json";
+    private static final String BINARY_DATA_FILE = "users.bin"; // written before snapshots had generations
+    private static final Pattern BINARY_GENERATION_FILE = Pattern.compile("users\\.(\\d+)\\.bin");
+    private static final String JOURNAL_FILE = "users.journal";
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final long FLUSH_INTERVAL_MILLIS = Long.getLong("ecospark.persist.debounceMillis", 500);
+    private static final int FLUSH_BATCH_SIZE = Integer.getInteger("ecospark.persist.batchSize", 64);
+    private final boolean useBinarySnapshot = Boolean.getBoolean("ecospark.binarySnapshot");
     private Map<String, Profile> userProfiles;
+    private BinarySnapshot snapshot;
+    private long snapshotGeneration;
+    private UserJournal journal;
+    private WriteBehindPersister persister;
+    private ExecutorService compactor;
+    private boolean compactionPending;
+    private final GroupCommit snapshotCommit = new GroupCommit(this::writeSnapshot);
+    private final List<ProfileListener> listeners = new CopyOnWriteArrayList<>();
+    private boolean closed;
+
+    /**
+     * Notified after a profile is added, updated or deleted.
+     */
+    interface ProfileListener {
+        void profileChanged(Profile profile);
+
+        void profileDeleted(String email);
+    }
 
     /**
      * Constructor, constructs new instance of the user manager and loads user data
      */
     public UserManager() {
         userProfiles = new HashMap<>();
+        journal = new UserJournal(new File(JOURNAL_FILE));
+        compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "user-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
         loadData();
+        persister = new WriteBehindPersister(journal, FLUSH_INTERVAL_MILLIS, FLUSH_BATCH_SIZE,
+                this::scheduleCompactionIfNeeded);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "user-store-shutdown"));
     }
 
     /**
@@ -28,9 +84,9 @@ class UserManager {
      * @param password, user's password
      * @return true if authentication is successful
      */
-    public boolean authenticate(String email, String password) {
-        if (userProfiles.containsKey(email)) {
-            Profile profile = userProfiles.get(email);
+    public synchronized boolean authenticate(String email, String password) {
+        Profile profile = getProfile(email);
+        if (profile != null) {
             return profile.getPassword().equals(password);
         }
         return false;
@@ -42,8 +98,8 @@ class UserManager {
      * @param email The user's email.
      * @return true if the user exists, false otherwise.
      */
-    public boolean userExists(String email) {
-        return userProfiles.containsKey(email);
+    public synchronized boolean userExists(String email) {
+        return userProfiles.containsKey(email) || (snapshot != null && snapshot.contains(email));
     }
 
     /**
@@ -51,8 +107,11 @@ class UserManager {
      * @param profile, profile
      */
     public void addUser(Profile profile) {
-        userProfiles.put(profile.getEmail(), profile);
-        saveData();
+        synchronized (this) {
+            putProfile(profile);
+            journalPut(profile);
+        }
+        fireProfileChanged(profile);
     }
 
     /**
@@ -60,73 +119,208 @@ class UserManager {
      * @param email
      * @return
      */
-    public Profile getProfile(String email) {
-        return userProfiles.get(email);
+    public synchronized Profile getProfile(String email) {
+        Profile profile = userProfiles.get(email);
+        if (profile == null && snapshot != null && snapshot.contains(email)) {
+            try {
+                profile = snapshot.take(email);
+                userProfiles.put(email, profile);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return profile;
+    }
+
+    private void putProfile(Profile profile) {
+        userProfiles.put(profile.getEmail(), profile);
+        if (snapshot != null) {
+            snapshot.forget(profile.getEmail());
+        }
     }
 
     /**
      * Retrieves a user's profile.
+     * Only the given profile is written, as one journal entry, by the background writer.
      * @param profile, profile
      */
     public void updateProfile(Profile profile) {
-        userProfiles.put(profile.getEmail(), profile);
-        saveData();
+        synchronized (this) {
+            putProfile(profile);
+            journalPut(profile);
+        }
+        fireProfileChanged(profile);
+    }
+
+    private void journalPut(Profile profile) {
+        persister.markDirty(profile);
+    }
+
+    private synchronized void scheduleCompactionIfNeeded() {
+        if (!compactionPending && journal.getEntryCount() >= COMPACTION_THRESHOLD) {
+            compactionPending = true;
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    synchronized (this) {
+                        compactionPending = false;
+                    }
+                }
+            });
+        }
     }
 
     /**
      * Saves user data to the JSON file.
+     * Writes a full snapshot (JSON or binary) and folds the journal into it.
      */
     public void saveData() {
         try {
-            JSONObject json = new JSONObject();
-            JSONArray usersArray = new JSONArray();
+            persister.flush();
+            compact();
+        } catch (IOException e) {
+            showSaveError(e);
+        }
+    }
+
+    /**
+     * Writes a snapshot, sharing it with any other saves requested while one is running.
+     */
+    private void compact() throws IOException {
+        snapshotCommit.commit();
+    }
 
+    /**
+     * Writes every profile to the snapshot, then drops the journal entries it now contains.
+     * The journal is rotated while the profiles are captured, so changes made during the
+     * write land in the new journal and are replayed on top of this snapshot. Profiles are
+     * captured as JSON or encoded records under the lock, so the background write never
+     * reads a profile while the UI is changing it. The snapshot is replaced atomically, so
+     * a crash mid-write leaves the previous one intact.
+     */
+    private void writeSnapshot() throws IOException {
+        List<JSONObject> profiles = new ArrayList<>();
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        BinarySnapshot source;
+        Map<String, Integer> undecoded;
+        long generation;
+        synchronized (this) {
             for (Profile profile : userProfiles.values()) {
-                usersArray.put(profile.toJSON());
+                if (useBinarySnapshot) {
+                    records.put(profile.getEmail(), BinarySnapshot.encode(profile));
+                } else {
+                    profiles.add(profile.toJSON());
+                }
             }
+            if (!useBinarySnapshot && snapshot != null) {
+                // Loaded from a binary snapshot before switching modes, the JSON needs every profile
+                for (Profile profile : snapshot.takeAll()) {
+                    userProfiles.put(profile.getEmail(), profile);
+                    profiles.add(profile.toJSON());
+                }
+                snapshot = null;
+            }
+            source = snapshot;
+            undecoded = source != null ? source.remaining() : new HashMap<>();
+            generation = ++snapshotGeneration;
+            journal.rotate();
+        }
+
+        if (useBinarySnapshot) {
+            AtomicFileWriter.replace(generationFile(generation),
+                    temp -> BinarySnapshot.write(temp, records, source, undecoded));
+            deleteOldGenerations(generation, source);
+        } else {
+            AtomicFileWriter.replace(new File(DATA_FILE),
+                    temp -> UserStoreCodec.write(temp, profiles));
+        }
+        journal.discardRotated();
+    }
 
-            json.put("users", usersArray);
+    private static File generationFile(long generation) {
+        return new File("users." + generation + ".bin");
+    }
 
-            try (FileWriter file = new FileWriter(DATA_FILE)) {
-                file.write(json.toString(2));
+    /**
+     * Finds the binary snapshot generations on disk.
+     * @return generation number to file, the legacy users.bin as generation 0
+     */
+    private static Map<Long, File> binaryGenerations() {
+        Map<Long, File> generations = new HashMap<>();
+        File legacy = new File(BINARY_DATA_FILE);
+        if (legacy.exists()) {
+            generations.put(0L, legacy);
+        }
+        File[] files = new File(BINARY_DATA_FILE).getAbsoluteFile().getParentFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = BINARY_GENERATION_FILE.matcher(file.getName());
+                if (matcher.matches()) {
+                    generations.put(Long.parseLong(matcher.group(1)), new File(file.getName()));
+                }
             }
+        }
+        return generations;
+    }
 
-        } catch (IOException e) {
-            JOptionPane.showMessageDialog(null,
-                    "Error saving user data: " + e.getMessage(),
-                    "Save Error",
-                    JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
+    /**
+     * Deletes the generations older than the one just written. The generation still
+     * mapped for lazy decoding is kept; it goes in a later compaction or on the next start.
+     */
+    private static void deleteOldGenerations(long current, BinarySnapshot mapped) {
+        for (Map.Entry<Long, File> entry : binaryGenerations().entrySet()) {
+            File file = entry.getValue();
+            if (entry.getKey() < current
+                    && (mapped == null || !file.getAbsoluteFile().equals(mapped.getFile().getAbsoluteFile()))) {
+                file.delete();
+            }
         }
     }
 
+    private void showSaveError(IOException e) {
+        JOptionPane.showMessageDialog(null,
+                "Error saving user data: " + e.getMessage(),
+                "Save Error",
+                JOptionPane.ERROR_MESSAGE);
+        e.printStackTrace();
+    }
+
     /**
      *Loads user data
+     * Reads the newest snapshot, JSON or binary, then replays the journal on top of it.
+     * A binary snapshot is only mapped here. On equal timestamps the configured format wins.
      */
-    public void loadData() {
+    public synchronized void loadData() {
         File dataFile = new File(DATA_FILE);
-
-        if (!dataFile.exists()) {
-            return;
-        }
+        Map<Long, File> generations = binaryGenerations();
+        snapshotGeneration = generations.isEmpty() ? 0 : Collections.max(generations.keySet());
+        File binaryFile = generations.get(snapshotGeneration);
+        boolean binaryNewest = binaryFile != null && (!dataFile.exists()
+                || binaryFile.lastModified() > dataFile.lastModified()
+                || (useBinarySnapshot && binaryFile.lastModified() == dataFile.lastModified()));
 
         try {
-            StringBuilder content = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new FileReader(dataFile))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    content.append(line);
-                }
+            if (binaryNewest) {
+                snapshot = BinarySnapshot.open(binaryFile);
+                deleteOldGenerations(snapshotGeneration, snapshot);
+            } else if (dataFile.exists()) {
+                UserStoreCodec.read(dataFile, profile -> userProfiles.put(profile.getEmail(), profile));
             }
 
-            JSONObject json = new JSONObject(content.toString());
-            JSONArray usersArray = json.getJSONArray("users");
+            journal.replay(new UserJournal.Replay() {
+                @Override
+                public void put(JSONObject profileJson) {
+                    putProfile(Profile.fromJSON(profileJson));
+                }
 
-            for (int i = 0; i < usersArray.length(); i++) {
-                JSONObject userJson = usersArray.getJSONObject(i);
-                Profile profile = Profile.fromJSON(userJson); // Ensure Profile has a fromJSON method
-                userProfiles.put(profile.getEmail(), profile);
-            }
+                @Override
+                public void delete(String email) {
+                    removeProfile(email);
+                }
+            });
 
         } catch (IOException | JSONException e) {
             JOptionPane.showMessageDialog(null,
@@ -137,14 +331,121 @@ class UserManager {
         }
     }
 
+    /**
+     * Imports every profile of a users.json file, replacing profiles with the same email.
+     * @param file, JSON file to import
+     */
+    public void importJson(File file) throws IOException {
+        synchronized (this) {
+            UserStoreCodec.read(file, this::putProfile);
+        }
+        compact();
+    }
+
+    /**
+     * Exports every profile as a users.json file.
+     * @param file, JSON file to write
+     */
+    public void exportJson(File file) throws IOException {
+        List<JSONObject> profiles = new ArrayList<>();
+        synchronized (this) {
+            if (snapshot != null) {
+                for (Profile profile : snapshot.takeAll()) {
+                    userProfiles.put(profile.getEmail(), profile);
+                }
+            }
+            for (Profile profile : userProfiles.values()) {
+                profiles.add(profile.toJSON());
+            }
+        }
+        UserStoreCodec.write(file, profiles);
+    }
+
     /**
      * Deletes profile
      * @param email
      */
     public void deleteProfile(String email) {
-        if (userProfiles.containsKey(email)) {
-            userProfiles.remove(email);
-            saveData();
+        synchronized (this) {
+            if (!userExists(email)) {
+                return;
+            }
+            removeProfile(email);
+            persister.markDeleted(email);
+        }
+        for (ProfileListener listener : listeners) {
+            listener.profileDeleted(email);
+        }
+    }
+
+    /**
+     * Registers a listener for profile changes.
+     * @param listener, listener to add
+     */
+    public void addProfileListener(ProfileListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with addProfileListener.
+     * @param listener, listener to remove
+     */
+    public void removeProfileListener(ProfileListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireProfileChanged(Profile profile) {
+        for (ProfileListener listener : listeners) {
+            listener.profileChanged(profile);
+        }
+    }
+
+    /**
+     * Waits until every change made so far has been written to the journal.
+     * @throws IOException if the journal could not take them
+     */
+    public void flush() throws IOException {
+        persister.flush();
+    }
+
+    /**
+     * Writes the pending changes and stops the background writer. Called on shutdown.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        persister.close();
+        if (persister.hasPendingChanges()) {
+            // The journal could not take the last changes, a full snapshot still holds them
+            try {
+                compact();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Getter, gets the background writer, for its queue depth and flush latency metrics
+     * @return persister
+     */
+    public WriteBehindPersister getPersister() {
+        return persister;
+    }
+
+    private void removeProfile(String email) {
+        userProfiles.remove(email);
+        if (snapshot != null) {
+            snapshot.forget(email);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the users.json snapshot one profile at a time.
+ *
+ * Only the profile currently being decoded or encoded is held as a JSON tree,
+ * so memory use stays flat no matter how many users the file contains.
+ */
+class UserStoreCodec {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String USERS_KEY = "users";
+    private static final int INDENT = 2;
+
+    /**
+     * Streams every profile in the snapshot to the given consumer.
+     * @param file, snapshot file
+     * @param consumer, receives each decoded profile
+     */
+    public static void read(File file, Consumer<Profile> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             Reader reader = new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            JSONTokener tokener = new JSONTokener(reader);
+            expect(tokener, '{');
+            if (tokener.nextClean() == '}') {
+                return;
+            }
+            tokener.back();
+
+            while (true) {
+                Object key = tokener.nextValue();
+                expect(tokener, ':');
+                if (USERS_KEY.equals(key)) {
+                    readUsers(tokener, consumer);
+                } else {
+                    tokener.nextValue(); // unknown top-level field, skip it
+                }
+
+                char c = tokener.nextClean();
+                if (c == '}') {
+                    return;
+                }
+                if (c != ',') {
+                    throw tokener.syntaxError("Expected ',' or '}'");
+                }
+            }
+        } catch (JSONException e) {
+            throw new IOException("Malformed user data in " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void readUsers(JSONTokener tokener, Consumer<Profile> consumer) {
+        expect(tokener, '[');
+        if (tokener.nextClean() == ']') {
+            return;
+        }
+        tokener.back();
+
+        while (true) {
+            Object value = tokener.nextValue();
+            if (!(value instanceof JSONObject)) {
+                throw tokener.syntaxError("Expected a user object");
+            }
+            consumer.accept(Profile.fromJSON((JSONObject) value));
+
+            char c = tokener.nextClean();
+            if (c == ']') {
+                return;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private static void expect(JSONTokener tokener, char expected) {
+        if (tokener.nextClean() != expected) {
+            throw tokener.syntaxError("Expected '" + expected + "'");
+        }
+    }
+
+    /**
+     * Writes the given profiles as a snapshot, one profile at a time.
+     * @param file, snapshot file
+     * @param profiles, JSON of the profiles to write, captured while no one could change them
+     */
+    public static void write(File file, Iterable<JSONObject> profiles) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Writer writer = new BufferedWriter(
+                     Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            write(writer, profiles);
+        }
+    }
+
+    /**
+     * Writes the given profiles in the snapshot format to an open writer.
+     * @param writer, destination
+     * @param profiles, JSON of the profiles to write
+     */
+    public static void write(Writer writer, Iterable<JSONObject> profiles) throws IOException {
+        writer.write("{\"" + USERS_KEY + "\": [");
+        boolean first = true;
+        for (JSONObject profile : profiles) {
+            writer.write(first ? "\n" : ",\n");
+            writer.write("  ");
+            try {
+                profile.write(writer, INDENT, INDENT);
+            } catch (JSONException e) {
+                throw new IOException("Could not encode profile " + profile.optString("email"), e);
+            }
+            first = false;
+        }
+        writer.write("\n]}");
+    }
+}
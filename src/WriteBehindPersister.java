@@ -0,0 +1,259 @@
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes profile changes to the {@link UserJournal} on a single background thread,
+ * so saving never blocks the Swing Event Dispatch Thread.
+ *
+ * Changes are captured when a profile is marked dirty and coalesced by email, so
+ * ten clicks on the same profile within one interval become a single journal entry.
+ * A batch is written once the oldest pending change is debounceMillis old, once
+ * batchSize profiles are pending, or when {@link #flush()} is called. A batch that
+ * fails to write goes back in the queue; after {@link #close()} it stays there, and
+ * {@link #hasPendingChanges()} tells the owner to save it some other way.
+ */
+class WriteBehindPersister {
+    private final UserJournal journal;
+    private final long debounceMillis;
+    private final int batchSize;
+    private final Runnable afterWrite;
+    private final Thread writerThread;
+
+    private Map<String, JSONObject> pending = new LinkedHashMap<>();
+    private long firstPendingAt;
+    private long flushRequests;
+    private long flushesDone;
+    private boolean closed;
+
+    private long flushCount;
+    private long totalFlushNanos;
+    private long lastFlushNanos;
+    private long maxFlushNanos;
+    private long failedFlushes;
+    private IOException lastFailure;
+
+    /**
+     * Constructor, starts the background writer
+     * @param journal, journal the changes are appended to
+     * @param debounceMillis, longest time a change waits before it is written
+     * @param batchSize, number of pending profiles that triggers an early write
+     * @param afterWrite, run on the writer thread after each batch is written
+     */
+    public WriteBehindPersister(UserJournal journal, long debounceMillis, int batchSize, Runnable afterWrite) {
+        this.journal = journal;
+        this.debounceMillis = debounceMillis;
+        this.batchSize = batchSize;
+        this.afterWrite = afterWrite;
+        writerThread = new Thread(this::runWriter, "user-write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Marks a profile as changed. Its current state is captured now, on the caller's
+     * thread, so the writer never reads a profile while the UI is changing it.
+     * @param profile, changed profile
+     */
+    public void markDirty(Profile profile) {
+        enqueue(profile.getEmail(), profile.toJSON());
+    }
+
+    /**
+     * Marks a profile as deleted.
+     * @param email, email of the deleted profile
+     */
+    public void markDeleted(String email) {
+        enqueue(email, null);
+    }
+
+    private synchronized void enqueue(String email, JSONObject change) {
+        if (closed) {
+            throw new IllegalStateException("Persister is closed");
+        }
+        if (pending.isEmpty()) {
+            firstPendingAt = System.currentTimeMillis();
+        }
+        pending.remove(email); // keep the entry in the order of its latest change
+        pending.put(email, change);
+        notifyAll();
+    }
+
+    /**
+     * Writes every pending change now and waits until it is in the journal.
+     * @throws IOException if a batch failed to write while waiting; its changes stay queued
+     */
+    public synchronized void flush() throws IOException {
+        long failuresBefore = failedFlushes;
+        long target = ++flushRequests;
+        notifyAll();
+        boolean interrupted = false;
+        while (flushesDone < target && writerThread.isAlive()) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failedFlushes > failuresBefore) {
+            throw new IOException("Could not write profile changes to the journal", lastFailure);
+        }
+    }
+
+    /**
+     * Flushes the pending changes and stops the writer thread. Changes that could not
+     * be written are left pending, see {@link #hasPendingChanges()}.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWriter() {
+        while (true) {
+            Map<String, JSONObject> batch;
+            long flushTarget;
+            synchronized (this) {
+                try {
+                    while (!closed && pending.isEmpty() && flushRequests == flushesDone) {
+                        wait();
+                    }
+                    while (!closed && flushRequests == flushesDone && pending.size() < batchSize) {
+                        long remaining = firstPendingAt + debounceMillis - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (closed && pending.isEmpty()) {
+                    flushesDone = flushRequests;
+                    notifyAll();
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                flushTarget = flushRequests;
+            }
+
+            long start = System.nanoTime();
+            boolean failed = false;
+            try {
+                if (!batch.isEmpty()) {
+                    journal.appendAll(batch);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                requeue(batch, e);
+                failed = true;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            synchronized (this) {
+                if (failed && closed) {
+                    // Retrying on a journal that just failed could hold up shutdown forever
+                    flushesDone = flushRequests;
+                    notifyAll();
+                    return;
+                }
+                if (!batch.isEmpty() && !failed) {
+                    flushCount++;
+                    totalFlushNanos += elapsed;
+                    lastFlushNanos = elapsed;
+                    maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+                }
+                flushesDone = flushTarget;
+                notifyAll();
+            }
+            if (afterWrite != null) {
+                afterWrite.run();
+            }
+        }
+    }
+
+    private synchronized void requeue(Map<String, JSONObject> batch, IOException failure) {
+        failedFlushes++;
+        lastFailure = failure;
+        for (Map.Entry<String, JSONObject> entry : batch.entrySet()) {
+            // A newer change made while the batch was being written wins
+            pending.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+        if (!pending.isEmpty()) {
+            firstPendingAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Getter, gets the number of profiles waiting to be written
+     * @return queue depth
+     */
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * Checks if changes are still waiting to be written, which after {@link #close()}
+     * means the journal could not take them.
+     * @return true if changes are pending
+     */
+    public synchronized boolean hasPendingChanges() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Getter, gets the number of batches written so far
+     * @return flush count
+     */
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Getter, gets the number of batches that failed to write
+     * @return failed flushes
+     */
+    public synchronized long getFailedFlushes() {
+        return failedFlushes;
+    }
+
+    /**
+     * Getter, gets how long the last batch took to write
+     * @return latency in milliseconds
+     */
+    public synchronized double getLastFlushMillis() {
+        return lastFlushNanos / 1_000_000.0;
+    }
+
+    /**
+     * Getter, gets the average time a batch took to write
+     * @return latency in milliseconds
+     */
+    public synchronized double getAverageFlushMillis() {
+        return flushCount == 0 ? 0 : totalFlushNanos / 1_000_000.0 / flushCount;
+    }
+
+    /**
+     * Getter, gets the slowest batch write so far
+     * @return latency in milliseconds
+     */
+    public synchronized double getMaxFlushMillis() {
+        return maxFlushNanos / 1_000_000.0;
+    }
+}